@@ -3,14 +3,15 @@
 // a plaintext and ciphertext will both be binary arrays of length lm
 public class AdvancedCipherEncrypter {
 	private static final int[] DEFAULT_S_BOX = {14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7};
-	private static final int[] DEFAULT_P_BOX = {1, 5, 9, 13, 2, 6, 10, 14, 3, 7, 11, 15, 4, 8, 12, 16};
+	private static final int[] DEFAULT_P_BOX = {0, 4, 8, 12, 1, 5, 9, 13, 2, 6, 10, 14, 3, 7, 11, 15};
 	private static final int[] DEFAULT_KEY = {0, 0, 1, 1, 1, 0, 1, 0, 1, 0, 0, 1, 0, 1, 0, 0, 1, 1, 0, 1, 0, 1, 1, 0, 0, 0, 1, 1, 1, 1, 1, 1};
 	private static final int DEFAULT_ROUND = 5;
 
 	public static int[] substitutionPermutationNetwork(int[] plaintext) {
-		if (plaintext == null || plaintext.length == 0 || plaintext.length % 4 != 0) {
+		if (!validateInput(plaintext, DEFAULT_ROUND, DEFAULT_KEY, DEFAULT_S_BOX, DEFAULT_P_BOX)) {
 			return new int[0];
 		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
 		int currentRound = 0;
 		while (currentRound < DEFAULT_ROUND - 2) {
 			xorWithKey(plaintext, DEFAULT_KEY, currentRound);
@@ -21,13 +22,14 @@ public class AdvancedCipherEncrypter {
 		xorWithKey(plaintext, DEFAULT_KEY, currentRound);
 		substitutionBox(plaintext, DEFAULT_S_BOX);
 		xorWithKey(plaintext, DEFAULT_KEY, currentRound + 1);
-		return plaintext;
+		return CipherMetrics.stop(event, "substitutionPermutationNetwork", plaintext.length, DEFAULT_KEY.length, plaintext);
 	}
 
 	public static int[] substitutionPermutationNetwork(int[] plaintext, int numberOfRounds, int[] key, int[] substitutionBoxIn, int[] permutationBox) {
 		if (!validateInput(plaintext, numberOfRounds, key, substitutionBoxIn, permutationBox)) {
 			return new int[0];
 		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
 		int currentRound = 0;
 		while (currentRound < numberOfRounds - 2) {
 			xorWithKey(plaintext, key, currentRound);
@@ -38,7 +40,77 @@ public class AdvancedCipherEncrypter {
 		xorWithKey(plaintext, key, currentRound);
 		substitutionBox(plaintext, substitutionBoxIn);
 		xorWithKey(plaintext, key, currentRound + 1);
-		return plaintext;
+		return CipherMetrics.stop(event, "substitutionPermutationNetwork", plaintext.length, key.length, plaintext);
+	}
+
+	/**
+	 * Builds packed engine with default rounds, key and boxes, see substitutionPermutationNetwork(int[])
+	 *
+	 * @param blockLength number of bits in one block
+	 * @return engine, or null if blockLength is not valid for default boxes
+	 */
+	public static PackedSubstitutionPermutationNetwork packedNetwork(int blockLength) {
+		return packedNetwork(blockLength, DEFAULT_ROUND, DEFAULT_KEY, DEFAULT_S_BOX, DEFAULT_P_BOX);
+	}
+
+	/**
+	 * Builds packed engine, which gives same result as
+	 * substitutionPermutationNetwork(plaintext, numberOfRounds, key, substitutionBoxIn, permutationBox)
+	 * for every plaintext of blockLength bits
+	 *
+	 * @return engine, or null if input is not valid, substitutionBoxIn has values out of range 0..15
+	 * or permutationBox has values out of range 0..permutationBox.length - 1
+	 */
+	public static PackedSubstitutionPermutationNetwork packedNetwork(int blockLength, int numberOfRounds, int[] key, int[] substitutionBoxIn, int[] permutationBox) {
+		if (!validateNetwork(blockLength, numberOfRounds, key, substitutionBoxIn, permutationBox)) {
+			return null;
+		}
+		return new PackedSubstitutionPermutationNetwork(blockLength, numberOfRounds, key, substitutionBoxIn, permutationBox);
+	}
+
+	/**
+	 * Builds bitsliced engine with default rounds, key and boxes, see substitutionPermutationNetwork(int[])
+	 *
+	 * @param blockLength number of bits in one block
+	 * @return engine, or null if blockLength is not valid for default boxes
+	 */
+	public static BitslicedSubstitutionPermutationNetwork bitslicedNetwork(int blockLength) {
+		return bitslicedNetwork(blockLength, DEFAULT_ROUND, DEFAULT_KEY, DEFAULT_S_BOX, DEFAULT_P_BOX);
+	}
+
+	/**
+	 * Builds bitsliced engine, which encrypts 64 blocks at once and gives same result as
+	 * substitutionPermutationNetwork(plaintext, numberOfRounds, key, substitutionBoxIn, permutationBox) for each of them
+	 *
+	 * @return engine, or null if input is not valid, substitutionBoxIn has values out of range 0..15
+	 * or permutationBox has values out of range 0..permutationBox.length - 1
+	 */
+	public static BitslicedSubstitutionPermutationNetwork bitslicedNetwork(int blockLength, int numberOfRounds, int[] key, int[] substitutionBoxIn, int[] permutationBox) {
+		if (!validateNetwork(blockLength, numberOfRounds, key, substitutionBoxIn, permutationBox)) {
+			return null;
+		}
+		return new BitslicedSubstitutionPermutationNetwork(blockLength, numberOfRounds, key, substitutionBoxIn, permutationBox);
+	}
+
+	/*
+	helper for engine builders, same as validateInput for plaintext of blockLength
+	engines also need s-box values in range 0..15 and p-box values in range 0..permutationBox.length - 1
+	 */
+	private static boolean validateNetwork(int blockLength, int numberOfRounds, int[] key, int[] substitutionBoxIn, int[] permutationBox) {
+		if (blockLength <= 0 || !validateInput(new int[blockLength], numberOfRounds, key, substitutionBoxIn, permutationBox)) {
+			return false;
+		}
+		for (int value : substitutionBoxIn) {
+			if (value < 0 || value > 15) {
+				return false;
+			}
+		}
+		for (int value : permutationBox) {
+			if (value < 0 || value >= permutationBox.length) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private static boolean validateInput(int[] plaintext, int numberOfRounds, int[] key, int[] substitutionBox, int[] permutationBox) {
@@ -0,0 +1,202 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/*
+shift and vigenere ciphers on ASCII bytes, one byte is one char as in StreamingCipher
+8 bytes are read as one long and processed at once without branches (SIMD within a register):
+letter ranges are found by adding 128 - n to low 7 bits of every byte, so high bit of byte shows byte >= n,
+key is added to every byte and 26 is subtracted where result passed end of its range
+carries never cross byte boundaries, remaining bytes of input are done one at a time
+output is same as CipherEncrypter method on text of these chars
+ */
+public class AsciiCipher {
+	// bytes processed from direct buffers at once
+	public static final int CHUNK_SIZE = 1 << 16;
+
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGH = 0x8080808080808080L;
+	private static final long LOW = 0x7F7F7F7F7F7F7F7FL;
+
+	private static final int LOWER_A = CipherEncrypter.ASCII_VALUE_OF_LOWER_A;
+	private static final int LOWER_Z = CipherEncrypter.ASCII_VALUE_OF_LOWER_Z;
+	private static final int CAPITAL_A = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_A;
+	private static final int CAPITAL_Z = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_Z;
+	private static final int LETTERS = CipherEncrypter.NUMBER_OF_LETTERS_IN_ENGLISH;
+
+	/**
+	 * CipherEncrypter.shiftCipher on bytes, every byte is moved like char in CipherEncrypter
+	 *
+	 * @param output       destination, must have space for length bytes, may be input if outputOffset is offset
+	 * @return number of bytes written, -1 if key is negative
+	 */
+	public static int shiftCipher(int key, byte[] input, int offset, int length, byte[] output, int outputOffset) {
+		if (key < 0) {
+			return -1;
+		}
+		int validKey = key % LETTERS;
+		long add = ONES * validKey;
+		long wrap = ONES * ((validKey - LETTERS) & 0xFF);
+		int i = 0;
+		for (; i + 8 <= length; i += 8) {
+			long x = (long) LONGS.get(input, offset + i);
+			// chars below 'a' wrap after 'Z', others after 'z'
+			long moves = atLeast(x, CAPITAL_Z + 1 - validKey) & ~(atLeast(x, LOWER_A) & ~atLeast(x, LOWER_Z + 1 - validKey));
+			long mask = (moves >>> 7) * 0xFF;
+			LONGS.set(output, outputOffset + i, addBytes(x, (add & ~mask) | (wrap & mask)));
+		}
+		for (; i < length; i++) {
+			int currentChar = input[offset + i] & 0xFF;
+			int limit = currentChar >= LOWER_A ? LOWER_Z : CAPITAL_Z;
+			output[outputOffset + i] = (byte) (currentChar + validKey <= limit ? currentChar + validKey : currentChar + validKey - LETTERS);
+		}
+		return length;
+	}
+
+	/**
+	 * Shift cipher on remaining bytes of input, heap buffers are used directly, direct buffers in chunks
+	 *
+	 * @param output must have space for input.remaining() bytes
+	 * @return number of bytes written, -1 if key is negative
+	 */
+	public static int shiftCipher(int key, ByteBuffer input, ByteBuffer output) {
+		if (key < 0) {
+			return -1;
+		}
+		return transform(input, output, (processed, in, offset, length, out, outputOffset) ->
+				shiftCipher(key, in, offset, length, out, outputOffset));
+	}
+
+	/**
+	 * CipherEncrypter.vigenereCipher on bytes, bytes other than letters are dropped but still use key position
+	 *
+	 * @param key          String which will be used as key, same as in CipherEncrypter.vigenereCipher
+	 * @param keyPosition  position in key of first byte, so text can be encrypted in parts
+	 * @param output       destination, must have space for length bytes, may be input if outputOffset is offset
+	 * @return number of bytes written, -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipher(String key, int keyPosition, byte[] input, int offset, int length, byte[] output, int outputOffset) {
+		if (key == null || key.length() == 0) {
+			return -1;
+		}
+		int[] keyArray = CipherEncrypter.vigenereKey(key);
+		long[] patterns = keyPatterns(keyArray);
+		int phase = Math.floorMod(keyPosition, keyArray.length);
+		int written = 0;
+		int i = 0;
+		for (; i + 8 <= length; i += 8) {
+			long x = (long) LONGS.get(input, offset + i);
+			long lower = atLeast(x, LOWER_A) & ~atLeast(x, LOWER_Z + 1);
+			long upper = atLeast(x, CAPITAL_A) & ~atLeast(x, CAPITAL_Z + 1);
+			long letters = lower | upper;
+			// letters plus key are at most 'z' + 25, so sum of letter never wraps
+			long sum = addBytes(x, patterns[phase]);
+			long moves = (lower & atLeast(sum, LOWER_Z + 1)) | (upper & atLeast(sum, CAPITAL_Z + 1));
+			long result = sum - (moves >>> 7) * LETTERS;
+			if (letters == HIGH) {
+				LONGS.set(output, outputOffset + written, result);
+				written += 8;
+			} else {
+				// every byte is stored, but position moves only after letters, so next byte overwrites dropped one
+				for (int shift = 0; shift < 64; shift += 8) {
+					output[outputOffset + written] = (byte) (result >>> shift);
+					written += (int) (letters >>> (shift + 7)) & 1;
+				}
+			}
+			phase += 8;
+			if (phase >= keyArray.length) {
+				phase %= keyArray.length;
+			}
+		}
+		for (; i < length; i++) {
+			int currentChar = input[offset + i] & 0xFF;
+			if (currentChar >= LOWER_A && currentChar <= LOWER_Z) {
+				output[outputOffset + written++] = (byte) (currentChar + keyArray[phase] <= LOWER_Z ? currentChar + keyArray[phase] : currentChar + keyArray[phase] - LETTERS);
+			} else if (currentChar >= CAPITAL_A && currentChar <= CAPITAL_Z) {
+				output[outputOffset + written++] = (byte) (currentChar + keyArray[phase] <= CAPITAL_Z ? currentChar + keyArray[phase] : currentChar + keyArray[phase] - LETTERS);
+			}
+			phase = phase == keyArray.length - 1 ? 0 : phase + 1;
+		}
+		return written;
+	}
+
+	/**
+	 * Vigenere cipher on remaining bytes of input, first byte uses first letter of key
+	 *
+	 * @param output must have space for input.remaining() bytes
+	 * @return number of bytes written, -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipher(String key, ByteBuffer input, ByteBuffer output) {
+		if (key == null || key.length() == 0) {
+			return -1;
+		}
+		return transform(input, output, (processed, in, offset, length, out, outputOffset) ->
+				vigenereCipher(key, processed, in, offset, length, out, outputOffset));
+	}
+
+	/*
+	high bit of every byte of x which is at least n, for 0 < n <= 128
+	 */
+	private static long atLeast(long x, int n) {
+		return (((x & LOW) + ONES * (128 - n)) | x) & HIGH;
+	}
+
+	/*
+	sum of every byte mod 256, without carry into next byte
+	 */
+	private static long addBytes(long x, long y) {
+		return ((x & LOW) + (y & LOW)) ^ ((x ^ y) & HIGH);
+	}
+
+	/*
+	patterns[p] has keyArray[(p + j) % length] in byte j, key of 8 bytes starting at key position p
+	 */
+	private static long[] keyPatterns(int[] keyArray) {
+		long[] patterns = new long[keyArray.length];
+		for (int p = 0; p < keyArray.length; p++) {
+			for (int j = 0; j < 8; j++) {
+				patterns[p] |= (long) keyArray[(p + j) % keyArray.length] << (8 * j);
+			}
+		}
+		return patterns;
+	}
+
+	/*
+	cipher on range of arrays, processed is number of input bytes before range, returns number of bytes written
+	 */
+	private interface ByteTransform {
+		int apply(int processed, byte[] input, int offset, int length, byte[] output, int outputOffset);
+	}
+
+	/*
+	helper for buffer methods, heap buffers are passed whole, direct ones are copied through array in chunks
+	 */
+	private static int transform(ByteBuffer input, ByteBuffer output, ByteTransform transform) {
+		if (input.hasArray() && output.hasArray() && !output.isReadOnly()) {
+			int length = input.remaining();
+			int offset = input.arrayOffset() + input.position();
+			input.position(input.position() + length);
+			int written = transform.apply(0, input.array(), offset, length, output.array(), output.arrayOffset() + output.position());
+			output.position(output.position() + written);
+			return written;
+		}
+		byte[] chunk = new byte[Math.min(input.remaining(), CHUNK_SIZE)];
+		int processed = 0;
+		int total = 0;
+		while (input.hasRemaining()) {
+			int length = Math.min(input.remaining(), chunk.length);
+			input.get(chunk, 0, length);
+			int written = transform.apply(processed, chunk, 0, length, chunk, 0);
+			processed += length;
+			output.put(chunk, 0, written);
+			total += written;
+		}
+		return total;
+	}
+
+	private AsciiCipher() {
+		throw new IllegalStateException("Utility class");
+	}
+}
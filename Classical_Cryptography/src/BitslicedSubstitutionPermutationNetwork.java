@@ -0,0 +1,186 @@
+/*
+bitsliced form of substitution permutation network from AdvancedCipherEncrypter
+64 independent blocks are processed at once: slices[i] holds bit i of every block,
+block number b is bit (63 - b) of each slice
+xor with key is xor of slice with 0 or all ones, s-box is boolean circuit of and/xor gates
+built from algebraic normal form of s-box, p-box only reorders slices
+instances are created by AdvancedCipherEncrypter.bitslicedNetwork and are immutable
+ */
+public class BitslicedSubstitutionPermutationNetwork {
+	public static final int BLOCKS_PER_PASS = 64;
+
+	private final int blockLength;
+	private final int numberOfRounds;
+	// roundKeys[r * blockLength + i] = 0 or -1, bit i of key used by xorWithKey in round r
+	private final long[] roundKeys;
+	// circuit[o] = monomials whose xor gives output bit o of s-box (o = 0 is highest bit)
+	private final int[][] circuit;
+	// source[k] = slice which p-box moves to slice k
+	private final int[] source;
+
+	BitslicedSubstitutionPermutationNetwork(int blockLength, int numberOfRounds, int[] key, int[] substitutionBoxIn, int[] permutationBox) {
+		this.blockLength = blockLength;
+		this.numberOfRounds = numberOfRounds;
+		roundKeys = new long[numberOfRounds * blockLength];
+		for (int round = 0; round < numberOfRounds; round++) {
+			int j = (round * 4) % key.length;
+			for (int i = 0; i < blockLength; i++) {
+				roundKeys[round * blockLength + i] = key[j] == 1 ? -1L : 0L;
+				j = j == key.length - 1 ? 0 : j + 1;
+			}
+		}
+		circuit = compileSubstitutionBox(substitutionBoxIn);
+		if (numberOfRounds > 2) {
+			source = PackedSubstitutionPermutationNetwork.permutationSource(blockLength, permutationBox);
+		} else {
+			source = new int[0];
+		}
+	}
+
+	public int getBlockLength() {
+		return blockLength;
+	}
+
+	/**
+	 * Encrypts 64 blocks given as slices, in place
+	 *
+	 * @param slices array of blockLength, slices[i] holds bit i of all 64 blocks
+	 * @return slices with ciphertext bits
+	 */
+	public long[] encryptSlices(long[] slices) {
+		if (slices == null || slices.length != blockLength) {
+			throw new IllegalArgumentException("Invalid slices");
+		}
+		long[] monomials = new long[16];
+		long[] next = new long[blockLength];
+		long[] state = slices;
+		int round = 0;
+		while (round < numberOfRounds - 2) {
+			xorWithKey(state, round);
+			substitutionBox(state, monomials);
+			for (int k = 0; k < blockLength; k++) {
+				next[k] = state[source[k]];
+			}
+			long[] temp = state;
+			state = next;
+			next = temp;
+			round++;
+		}
+		xorWithKey(state, round);
+		substitutionBox(state, monomials);
+		xorWithKey(state, round + 1);
+		if (state != slices) {
+			System.arraycopy(state, 0, slices, 0, blockLength);
+		}
+		return slices;
+	}
+
+	/**
+	 * Encrypts any number of blocks of at most 64 bits, in place
+	 * blocks are transposed into slices 64 at a time
+	 *
+	 * @param blocks plaintexts as numbers, first bit of block is highest bit (blockLength - 1)
+	 * @return blocks with ciphertexts in same form
+	 */
+	public long[] encryptBlocks(long[] blocks) {
+		if (blockLength > 64) {
+			throw new IllegalStateException("Block length is more than 64 bits");
+		}
+		int unused = 64 - blockLength;
+		long[] matrix = new long[BLOCKS_PER_PASS];
+		long[] slices = new long[blockLength];
+		for (int from = 0; from < blocks.length; from += BLOCKS_PER_PASS) {
+			int count = Math.min(BLOCKS_PER_PASS, blocks.length - from);
+			for (int b = 0; b < BLOCKS_PER_PASS; b++) {
+				matrix[b] = b < count ? blocks[from + b] << unused : 0;
+			}
+			transpose(matrix);
+			System.arraycopy(matrix, 0, slices, 0, blockLength);
+			encryptSlices(slices);
+			System.arraycopy(slices, 0, matrix, 0, blockLength);
+			for (int i = blockLength; i < BLOCKS_PER_PASS; i++) {
+				matrix[i] = 0;
+			}
+			transpose(matrix);
+			for (int b = 0; b < count; b++) {
+				blocks[from + b] = matrix[b] >>> unused;
+			}
+		}
+		return blocks;
+	}
+
+	/**
+	 * Transposes 64 x 64 bit matrix in place, bit (63 - j) of matrix[i] is swapped with bit (63 - i) of matrix[j]
+	 * turns 64 blocks into slices and back
+	 */
+	public static void transpose(long[] matrix) {
+		long mask = 0x00000000FFFFFFFFL;
+		for (int j = 32; j != 0; j >>= 1, mask ^= mask << j) {
+			for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+				long temp = (matrix[k] ^ (matrix[k | j] >>> j)) & mask;
+				matrix[k] ^= temp;
+				matrix[k | j] ^= temp << j;
+			}
+		}
+	}
+
+	private void xorWithKey(long[] slices, int round) {
+		int offset = round * blockLength;
+		for (int i = 0; i < blockLength; i++) {
+			slices[i] ^= roundKeys[offset + i];
+		}
+	}
+
+	/*
+	evaluates s-box circuit for every nibble of slices
+	monomials[m] = and of input slices selected by bits of m, monomials[0] is all ones
+	 */
+	private void substitutionBox(long[] slices, long[] monomials) {
+		monomials[0] = -1L;
+		for (int i = 0; i < blockLength; i = i + 4) {
+			for (int m = 1; m < 16; m++) {
+				int low = Integer.numberOfTrailingZeros(m);
+				monomials[m] = monomials[m & (m - 1)] & slices[i + 3 - low];
+			}
+			for (int o = 0; o < 4; o++) {
+				long value = 0;
+				for (int m : circuit[o]) {
+					value ^= monomials[m];
+				}
+				slices[i + o] = value;
+			}
+		}
+	}
+
+	/*
+	helper for constructor, finds algebraic normal form of every output bit with Moebius transform
+	monomial m is product of input bits whose weights are set in m
+	 */
+	private static int[][] compileSubstitutionBox(int[] substitutionBoxIn) {
+		int[][] result = new int[4][];
+		for (int o = 0; o < 4; o++) {
+			int[] coefficients = new int[16];
+			for (int x = 0; x < 16; x++) {
+				coefficients[x] = (substitutionBoxIn[x] >>> (3 - o)) & 1;
+			}
+			for (int bit = 1; bit < 16; bit <<= 1) {
+				for (int x = 0; x < 16; x++) {
+					if ((x & bit) != 0) {
+						coefficients[x] ^= coefficients[x ^ bit];
+					}
+				}
+			}
+			int count = 0;
+			for (int coefficient : coefficients) {
+				count += coefficient;
+			}
+			result[o] = new int[count];
+			for (int m = 0, k = 0; m < 16; m++) {
+				if (coefficients[m] == 1) {
+					result[o][k++] = m;
+				}
+			}
+		}
+		return result;
+	}
+}
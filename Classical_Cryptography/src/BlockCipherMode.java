@@ -0,0 +1,461 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+modes of operation for packed substitution permutation network, so bytes of any length can be encrypted
+block of blockLength bits is blockLength / 8 bytes, first byte is highest byte of block as number,
+blockLength must be multiple of 8 and at most 64
+CTR: block i is xored with encryption of (nonce + i) mod 2^blockLength, encryption and decryption are same
+and data does not need padding, blocks are independent, so ranges of CHUNK_SIZE bytes run in parallel
+CBC: block is xored with previous ciphertext block (iv for first one) and encrypted, so encryption is sequential,
+decryption only needs ciphertext and runs in parallel like CTR
+last block is padded with 1..blockLength / 8 bytes whose value is number of padding bytes
+one instance encrypts one stream, instances are not thread safe
+ */
+public abstract class BlockCipherMode {
+	// bytes of one leaf of parallel CTR and CBC decryption
+	public static final int CHUNK_SIZE = 1 << 16;
+	// bytes read at once by transform(InputStream, OutputStream), many chunks so one read runs in parallel
+	public static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+	final PackedSubstitutionPermutationNetwork network;
+	final int blockBytes;
+	// blockLength bits set
+	final long blockMask;
+	// whole blocks in one leaf of parallel work
+	final int chunkBlocks;
+
+	BlockCipherMode(PackedSubstitutionPermutationNetwork network) {
+		this.network = network;
+		blockBytes = network.getBlockLength() / 8;
+		blockMask = network.getBlockLength() == 64 ? -1L : (1L << network.getBlockLength()) - 1;
+		chunkBlocks = CHUNK_SIZE / blockBytes;
+	}
+
+	/**
+	 * Counter mode, same instance type encrypts and decrypts
+	 *
+	 * @param network engine with block length multiple of 8, at most 64
+	 * @param nonce   first counter block, only lowest blockLength bits are used
+	 * @return mode, or null if network is null or its block length is not supported
+	 */
+	public static BlockCipherMode counter(PackedSubstitutionPermutationNetwork network, long nonce) {
+		if (!supported(network)) {
+			return null;
+		}
+		return new Counter(network, nonce);
+	}
+
+	/**
+	 * Cipher block chaining encryption with padding
+	 *
+	 * @param network engine with block length multiple of 8, at most 64
+	 * @param iv      initialization vector, only lowest blockLength bits are used
+	 * @return mode, or null if network is null or its block length is not supported
+	 */
+	public static BlockCipherMode chainEncryption(PackedSubstitutionPermutationNetwork network, long iv) {
+		if (!supported(network)) {
+			return null;
+		}
+		return new ChainEncryption(network, iv);
+	}
+
+	/**
+	 * Cipher block chaining decryption, removes padding
+	 *
+	 * @param network engine with block length multiple of 8, at most 64, and s-box and p-box which are permutations
+	 * @param iv      initialization vector used for encryption
+	 * @return mode, or null if network is null, its block length is not supported or it can not decrypt
+	 */
+	public static BlockCipherMode chainDecryption(PackedSubstitutionPermutationNetwork network, long iv) {
+		if (!supported(network) || !network.isInvertible()) {
+			return null;
+		}
+		return new ChainDecryption(network, iv);
+	}
+
+	/**
+	 * Processes next part of data
+	 *
+	 * @param input        bytes of data
+	 * @param offset       first byte of part
+	 * @param length       number of bytes in part
+	 * @param output       destination, must have space for length + maxPending() bytes,
+	 *                     must not overlap input, except counter mode which can work in place
+	 * @param outputOffset first position to write
+	 * @return number of bytes written
+	 * @throws IllegalStateException if counter mode would use same counter twice
+	 */
+	public abstract int update(byte[] input, int offset, int length, byte[] output, int outputOffset);
+
+	/**
+	 * Ends data, writes bytes which mode still holds, call after last part
+	 *
+	 * @param output       destination, must have space for maxPending() bytes
+	 * @param outputOffset first position to write
+	 * @return number of bytes written
+	 * @throws IllegalStateException if CBC ciphertext is not whole blocks or its padding is not valid
+	 */
+	public int finish(byte[] output, int outputOffset) {
+		return 0;
+	}
+
+	/**
+	 * @return number of bytes which mode can keep between parts
+	 */
+	public int maxPending() {
+		return blockBytes;
+	}
+
+	/**
+	 * Processes whole data at once
+	 *
+	 * @return result of exact length
+	 */
+	public byte[] transform(byte[] input) {
+		byte[] output = new byte[input.length + 2 * maxPending()];
+		int written = update(input, 0, input.length, output, 0);
+		written += finish(output, written);
+		return written == output.length ? output : Arrays.copyOf(output, written);
+	}
+
+	/**
+	 * Processes remaining bytes of input as next part of data, see update
+	 * buffers with arrays are used directly, others are copied through temporary arrays
+	 *
+	 * @param output must have space for input.remaining() + maxPending() bytes
+	 * @return number of bytes written
+	 */
+	public int update(ByteBuffer input, ByteBuffer output) {
+		int written = 0;
+		if (input.hasArray() && output.hasArray() && !output.isReadOnly()) {
+			int length = input.remaining();
+			written = update(input.array(), input.arrayOffset() + input.position(), length,
+					output.array(), output.arrayOffset() + output.position());
+			input.position(input.position() + length);
+			output.position(output.position() + written);
+			return written;
+		}
+		byte[] inputBytes = new byte[Math.min(input.remaining(), STREAM_BUFFER_SIZE)];
+		byte[] outputBytes = new byte[inputBytes.length + maxPending()];
+		while (input.hasRemaining()) {
+			int length = Math.min(input.remaining(), inputBytes.length);
+			input.get(inputBytes, 0, length);
+			int count = update(inputBytes, 0, length, outputBytes, 0);
+			output.put(outputBytes, 0, count);
+			written += count;
+		}
+		return written;
+	}
+
+	/**
+	 * Ends data, see finish(byte[], int)
+	 *
+	 * @param output must have space for maxPending() bytes
+	 * @return number of bytes written
+	 */
+	public int finish(ByteBuffer output) {
+		byte[] outputBytes = new byte[maxPending()];
+		int written = finish(outputBytes, 0);
+		output.put(outputBytes, 0, written);
+		return written;
+	}
+
+	/**
+	 * Processes all bytes of in and writes them to out, STREAM_BUFFER_SIZE bytes at a time
+	 *
+	 * @return number of bytes written
+	 */
+	public long transform(InputStream in, OutputStream out) throws IOException {
+		byte[] input = new byte[STREAM_BUFFER_SIZE];
+		byte[] output = new byte[STREAM_BUFFER_SIZE + maxPending()];
+		long total = 0;
+		int read;
+		while ((read = in.readNBytes(input, 0, input.length)) > 0) {
+			int written = update(input, 0, read, output, 0);
+			out.write(output, 0, written);
+			total += written;
+		}
+		int written = finish(output, 0);
+		out.write(output, 0, written);
+		out.flush();
+		return total + written;
+	}
+
+	private static boolean supported(PackedSubstitutionPermutationNetwork network) {
+		return network != null && network.getBlockLength() % 8 == 0 && network.getBlockLength() <= 64;
+	}
+
+	/*
+	block at offset as number, first byte is highest
+	 */
+	long readBlock(byte[] bytes, int offset) {
+		long block = 0;
+		for (int i = 0; i < blockBytes; i++) {
+			block = (block << 8) | (bytes[offset + i] & 0xFF);
+		}
+		return block;
+	}
+
+	void writeBlock(long block, byte[] bytes, int offset) {
+		for (int i = blockBytes - 1; i >= 0; i--) {
+			bytes[offset + i] = (byte) block;
+			block >>>= 8;
+		}
+	}
+
+	/*
+	processes blocks [from, to) of one range
+	 */
+	interface BlockRange {
+		void process(int from, int to);
+	}
+
+	/*
+	runs range over blocks [0, blocks), on common ForkJoin pool if there is more than one chunk
+	 */
+	void forEachChunk(int blocks, BlockRange range) {
+		if (blocks <= chunkBlocks) {
+			range.process(0, blocks);
+			return;
+		}
+		int chunks = (blocks + chunkBlocks - 1) / chunkBlocks;
+		ForkJoinPool.commonPool().invoke(new ChunkTask(range, blocks, chunkBlocks, 0, chunks));
+	}
+
+	/*
+	processes chunks [from, to) of blocks
+	 */
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final BlockRange range;
+		private final int blocks;
+		private final int chunkBlocks;
+		private final int from;
+		private final int to;
+
+		ChunkTask(BlockRange range, int blocks, int chunkBlocks, int from, int to) {
+			this.range = range;
+			this.blocks = blocks;
+			this.chunkBlocks = chunkBlocks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ChunkTask(range, blocks, chunkBlocks, from, middle),
+						new ChunkTask(range, blocks, chunkBlocks, middle, to));
+				return;
+			}
+			range.process(from * chunkBlocks, Math.min(blocks, to * chunkBlocks));
+		}
+	}
+
+	/*
+	keystream block of counter which is not used up yet is kept with number of its used bytes
+	 */
+	private static class Counter extends BlockCipherMode {
+		private final long nonce;
+		// blocks of keystream generated so far
+		private long counter;
+		private long keystream;
+		private int used;
+
+		Counter(PackedSubstitutionPermutationNetwork network, long nonce) {
+			super(network);
+			this.nonce = nonce & blockMask;
+			used = blockBytes;
+		}
+
+		@Override
+		public int maxPending() {
+			return 0;
+		}
+
+		@Override
+		public int update(byte[] input, int offset, int length, byte[] output, int outputOffset) {
+			int i = 0;
+			while (i < length && used < blockBytes) {
+				output[outputOffset + i] = (byte) (input[offset + i] ^ (keystream >>> (8 * (blockBytes - 1 - used))));
+				used++;
+				i++;
+			}
+			int blocks = (length - i) / blockBytes;
+			int tail = length - i - blocks * blockBytes;
+			reserve(blocks + (tail > 0 ? 1 : 0));
+			long first = counter;
+			int start = i;
+			forEachChunk(blocks, (from, to) -> {
+				for (int b = from; b < to; b++) {
+					int position = start + b * blockBytes;
+					long key = network.encrypt((nonce + first + b) & blockMask);
+					writeBlock(readBlock(input, offset + position) ^ key, output, outputOffset + position);
+				}
+			});
+			counter += blocks;
+			i += blocks * blockBytes;
+			if (tail > 0) {
+				keystream = network.encrypt((nonce + counter) & blockMask);
+				counter++;
+				used = 0;
+				while (i < length) {
+					output[outputOffset + i] = (byte) (input[offset + i] ^ (keystream >>> (8 * (blockBytes - 1 - used))));
+					used++;
+					i++;
+				}
+			}
+			return length;
+		}
+
+		/*
+		counter must not come back to nonce, that would repeat keystream
+		 */
+		private void reserve(int blocks) {
+			if (blockMask != -1L && counter + blocks > blockMask + 1) {
+				throw new IllegalStateException("Counter would repeat");
+			}
+		}
+	}
+
+	/*
+	pending holds bytes of block which is not complete yet
+	 */
+	private static class ChainEncryption extends BlockCipherMode {
+		private final byte[] pending;
+		private int pendingLength;
+		private long previous;
+
+		ChainEncryption(PackedSubstitutionPermutationNetwork network, long iv) {
+			super(network);
+			pending = new byte[blockBytes];
+			previous = iv & blockMask;
+		}
+
+		@Override
+		public int update(byte[] input, int offset, int length, byte[] output, int outputOffset) {
+			int written = 0;
+			int i = 0;
+			if (pendingLength > 0) {
+				int count = Math.min(length, blockBytes - pendingLength);
+				System.arraycopy(input, offset, pending, pendingLength, count);
+				pendingLength += count;
+				i = count;
+				if (pendingLength < blockBytes) {
+					return 0;
+				}
+				previous = network.encrypt(readBlock(pending, 0) ^ previous);
+				writeBlock(previous, output, outputOffset);
+				written = blockBytes;
+				pendingLength = 0;
+			}
+			for (; i + blockBytes <= length; i += blockBytes) {
+				previous = network.encrypt(readBlock(input, offset + i) ^ previous);
+				writeBlock(previous, output, outputOffset + written);
+				written += blockBytes;
+			}
+			pendingLength = length - i;
+			System.arraycopy(input, offset + i, pending, 0, pendingLength);
+			return written;
+		}
+
+		@Override
+		public int finish(byte[] output, int outputOffset) {
+			int padding = blockBytes - pendingLength;
+			Arrays.fill(pending, pendingLength, blockBytes, (byte) padding);
+			previous = network.encrypt(readBlock(pending, 0) ^ previous);
+			writeBlock(previous, output, outputOffset);
+			pendingLength = 0;
+			return blockBytes;
+		}
+	}
+
+	/*
+	last whole block is held back in pending until finish, because it has padding
+	 */
+	private static class ChainDecryption extends BlockCipherMode {
+		private final byte[] pending;
+		private int pendingLength;
+		private long previous;
+
+		ChainDecryption(PackedSubstitutionPermutationNetwork network, long iv) {
+			super(network);
+			pending = new byte[blockBytes];
+			previous = iv & blockMask;
+		}
+
+		@Override
+		public int update(byte[] input, int offset, int length, byte[] output, int outputOffset) {
+			if (length == 0) {
+				return 0;
+			}
+			int written = 0;
+			int i = 0;
+			if (pendingLength > 0 || length <= blockBytes) {
+				int count = Math.min(length, blockBytes - pendingLength);
+				System.arraycopy(input, offset, pending, pendingLength, count);
+				pendingLength += count;
+				i = count;
+				if (i == length) {
+					return 0;
+				}
+				// more data follows, so pending block is not last one
+				long block = readBlock(pending, 0);
+				writeBlock(network.decrypt(block) ^ previous, output, outputOffset);
+				previous = block;
+				written = blockBytes;
+				pendingLength = 0;
+			}
+			// whole blocks except last one, which may have padding
+			int blocks = (length - i - 1) / blockBytes;
+			long first = previous;
+			int start = offset + i;
+			int outputStart = outputOffset + written;
+			forEachChunk(blocks, (from, to) -> {
+				long before = from == 0 ? first : readBlock(input, start + (from - 1) * blockBytes);
+				for (int b = from; b < to; b++) {
+					long block = readBlock(input, start + b * blockBytes);
+					writeBlock(network.decrypt(block) ^ before, output, outputStart + b * blockBytes);
+					before = block;
+				}
+			});
+			if (blocks > 0) {
+				previous = readBlock(input, start + (blocks - 1) * blockBytes);
+			}
+			i += blocks * blockBytes;
+			written += blocks * blockBytes;
+			pendingLength = length - i;
+			System.arraycopy(input, offset + i, pending, 0, pendingLength);
+			return written;
+		}
+
+		@Override
+		public int finish(byte[] output, int outputOffset) {
+			if (pendingLength != blockBytes) {
+				throw new IllegalStateException("Ciphertext is not whole blocks");
+			}
+			long block = network.decrypt(readBlock(pending, 0)) ^ previous;
+			int padding = (int) (block & 0xFF);
+			if (padding < 1 || padding > blockBytes) {
+				throw new IllegalStateException("Invalid padding");
+			}
+			for (int i = 1; i < padding; i++) {
+				if (((block >>> (8 * i)) & 0xFF) != padding) {
+					throw new IllegalStateException("Invalid padding");
+				}
+			}
+			byte[] plaintext = new byte[blockBytes];
+			writeBlock(block, plaintext, 0);
+			System.arraycopy(plaintext, 0, output, outputOffset, blockBytes - padding);
+			pendingLength = 0;
+			return blockBytes - padding;
+		}
+	}
+}
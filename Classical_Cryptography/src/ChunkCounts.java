@@ -0,0 +1,69 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+sums counters of chunks on common ForkJoin pool, used by CipherAnalyzer and SubstitutionPermutationNetworkAnalyzer
+every leaf counts one chunk into its own array and halves are added together, so no array is shared between threads
+ */
+final class ChunkCounts {
+	/*
+	counts of chunk number chunk are added into counts
+	 */
+	interface Counter {
+		void count(long chunk, long[] counts);
+	}
+
+	/*
+	sum of counts of chunks [0, chunks), all zero if there are no chunks
+	 */
+	static long[] sum(int size, long chunks, Counter counter) {
+		if (chunks <= 1) {
+			long[] result = new long[size];
+			if (chunks == 1) {
+				counter.count(0, result);
+			}
+			return result;
+		}
+		return ForkJoinPool.commonPool().invoke(new SumTask(counter, size, 0, chunks));
+	}
+
+	/*
+	counts chunks [from, to)
+	 */
+	private static class SumTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 1L;
+		private final Counter counter;
+		private final int size;
+		private final long from;
+		private final long to;
+
+		SumTask(Counter counter, int size, long from, long to) {
+			this.counter = counter;
+			this.size = size;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from > 1) {
+				long middle = (from + to) >>> 1;
+				SumTask left = new SumTask(counter, size, from, middle);
+				left.fork();
+				long[] result = new SumTask(counter, size, middle, to).compute();
+				long[] leftResult = left.join();
+				for (int i = 0; i < size; i++) {
+					result[i] += leftResult[i];
+				}
+				return result;
+			}
+			long[] result = new long[size];
+			counter.count(from, result);
+			return result;
+		}
+	}
+
+	private ChunkCounts() {
+		throw new IllegalStateException("Utility class");
+	}
+}
@@ -0,0 +1,511 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/*
+ciphertext-only attacks on ciphers of CipherEncrypter, case of letters is ignored
+shift, affine and vigenere keys are scored by chi-squared distance of decrypted letter counts
+from English letter frequencies, every candidate key only permutes counts, so text is read once
+substitution keys are found by hill climbing on log probability of English bigrams
+counts are summed over chunks of CHUNK_SIZE chars on common ForkJoin pool
+ */
+public class CipherAnalyzer {
+	public static final int CHUNK_SIZE = 1 << 16;
+
+	private static final int LOWER_A = CipherEncrypter.ASCII_VALUE_OF_LOWER_A;
+	private static final int LOWER_Z = CipherEncrypter.ASCII_VALUE_OF_LOWER_Z;
+	private static final int CAPITAL_A = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_A;
+	private static final int CAPITAL_Z = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_Z;
+	private static final int LETTERS = CipherEncrypter.NUMBER_OF_LETTERS_IN_ENGLISH;
+
+	// relative frequency of a..z in English text
+	private static final double[] ENGLISH_FREQUENCIES = {
+			0.08167, 0.01492, 0.02782, 0.04253, 0.12702, 0.02228, 0.02015, 0.06094, 0.06966, 0.00153, 0.00772, 0.04025, 0.02406,
+			0.06749, 0.07507, 0.01929, 0.00095, 0.05987, 0.06327, 0.09056, 0.02758, 0.00978, 0.02360, 0.00150, 0.01974, 0.00074};
+	// English bigram x y inside words per million bigrams at index x * 26 + y, row x is first letter
+	// 50 most common have their published share of English text, the rest are scaled from counts of English documentation
+	private static final int[] ENGLISH_BIGRAMS = {
+			// a
+			160, 2339, 3710, 4889, 292, 490, 2125, 292, 2169, 53, 1572, 10900, 3326,
+			19900, 112, 1460, 287, 10700, 8700, 14900, 2124, 1454, 145, 196, 1108, 83,
+			// b
+			1138, 70, 267, 93, 5800, 30, 61, 21, 1603, 425, 29, 3009, 132,
+			27, 1658, 332, 6, 799, 402, 140, 2490, 15, 6, 36, 1759, 34,
+			// c
+			4293, 28, 682, 102, 6500, 54, 28, 6000, 1352, 19, 2207, 2048, 191,
+			51, 7900, 143, 46, 1665, 262, 4566, 1360, 54, 22, 6, 387, 57,
+			// d
+			3162, 188, 58, 2191, 7600, 66, 55, 132, 4406, 107, 31, 555, 90,
+			103, 2743, 268, 6, 758, 1143, 152, 1032, 55, 52, 10, 184, 11,
+			// e
+			6900, 1043, 5072, 11700, 1906, 2513, 1016, 665, 1000, 80, 160, 3798, 4059,
+			14500, 221, 1641, 601, 20500, 13400, 5649, 296, 1419, 1911, 2944, 885, 89,
+			// f
+			1633, 23, 156, 201, 1473, 1186, 38, 9, 7172, 5, 5, 646, 29,
+			42, 4988, 41, 1, 1613, 383, 683, 1340, 6, 17, 4, 353, 2,
+			// g
+			545, 17, 163, 54, 5264, 73, 248, 768, 1645, 8, 10, 530, 260,
+			1531, 433, 367, 4, 1158, 667, 225, 1278, 58, 43, 2, 48, 42,
+			// h
+			9300, 171, 28, 479, 30700, 37, 10, 23, 7600, 4, 28, 121, 145,
+			186, 2500, 50, 1, 776, 126, 1093, 372, 8, 31, 1, 128, 2,
+			// i
+			2282, 1836, 7000, 1827, 2722, 3304, 2543, 25, 106, 129, 813, 6371, 2719,
+			24300, 8300, 1128, 343, 1949, 11300, 11200, 209, 1213, 14, 1761, 15, 805,
+			// j
+			363, 7, 11, 18, 582, 7, 3, 5, 60, 4, 17, 7, 27,
+			24, 325, 10, 7, 9, 29, 7, 488, 5, 13, 0, 1, 4,
+			// k
+			751, 49, 32, 39, 3254, 39, 295, 38, 684, 3, 44, 136, 27,
+			109, 553, 43, 4, 70, 608, 120, 168, 8, 49, 3, 32, 7,
+			// l
+			3640, 247, 83, 1926, 8300, 219, 158, 34, 6200, 10, 86, 5800, 109,
+			137, 4078, 233, 19, 104, 1476, 1484, 1825, 136, 143, 7, 2096, 40,
+			// m
+			5700, 807, 131, 177, 7900, 18, 18, 35, 3433, 4, 58, 123, 2466,
+			290, 3707, 2999, 5, 29, 682, 104, 605, 17, 11, 31, 102, 5,
+			// n
+			3429, 104, 3509, 13500, 6900, 1305, 9500, 142, 2535, 35, 523, 712, 283,
+			801, 4460, 298, 14, 150, 6234, 10400, 1873, 586, 30, 26, 541, 79,
+			// o
+			382, 1405, 2659, 3232, 445, 11700, 906, 114, 821, 90, 409, 2844, 5500,
+			17600, 1191, 3082, 6, 12800, 2187, 3229, 8700, 1983, 2252, 112, 58, 64,
+			// p
+			4187, 24, 131, 604, 3976, 130, 521, 397, 1016, 3, 315, 2326, 63,
+			79, 3202, 1425, 4, 4425, 753, 2472, 941, 6, 39, 9, 600, 8,
+			// q
+			10, 2, 11, 6, 10, 5, 2, 1, 9, 0, 0, 35, 2,
+			3, 6, 2, 2, 9, 38, 18, 1505, 3, 1, 3, 0, 0,
+			// r
+			6900, 241, 865, 1275, 18500, 422, 1386, 46, 7300, 6, 731, 467, 1830,
+			1900, 7300, 287, 52, 1975, 2958, 3185, 1363, 498, 218, 11, 1677, 47,
+			// s
+			2306, 64, 1715, 87, 9300, 277, 93, 1698, 5500, 11, 444, 502, 277,
+			247, 2742, 1801, 62, 1384, 3662, 10500, 2644, 119, 264, 7, 1207, 59,
+			// t
+			4952, 48, 1185, 284, 12000, 184, 51, 35600, 13400, 10, 113, 797, 175,
+			87, 10400, 854, 4, 4366, 2695, 2062, 2078, 26, 519, 31, 1644, 106,
+			// u
+			670, 774, 1050, 585, 2134, 562, 817, 27, 1462, 12, 67, 2812, 1978,
+			4262, 135, 2506, 1, 5400, 5036, 4427, 16, 27, 25, 300, 22, 43,
+			// v
+			2014, 17, 51, 8, 8300, 14, 13, 2, 1921, 0, 3, 15, 46,
+			21, 686, 17, 1, 162, 66, 17, 15, 9, 4, 4, 4, 3,
+			// w
+			1574, 8, 47, 43, 1353, 10, 22, 2115, 3733, 1, 174, 63, 11,
+			281, 1005, 12, 2, 520, 312, 15, 21, 2, 11, 4, 17, 1,
+			// x
+			314, 3, 236, 128, 699, 18, 6, 13, 421, 0, 4, 19, 47,
+			5, 19, 641, 1, 9, 19, 1016, 20, 5, 2, 26, 26, 37,
+			// y
+			156, 60, 48, 45, 209, 12, 49, 6, 161, 4, 14, 104, 265,
+			321, 542, 1135, 1, 297, 1124, 543, 103, 4, 59, 3, 6, 12,
+			// z
+			329, 21, 11, 12, 891, 5, 8, 17, 260, 3, 14, 57, 39,
+			31, 78, 4, 1, 5, 16, 27, 93, 2, 16, 1, 35, 34
+	};
+	// log probability of bigram x y at index x * 26 + y
+	private static final double[] BIGRAM_LOG_PROBABILITIES = bigramLogProbabilities();
+	// index of coincidence between random text (1/26 = 0.038) and English (0.066), columns above it look like English
+	private static final double ENGLISH_COINCIDENCE = 0.055;
+	// letters searched for repeated trigrams by Kasiski examination
+	private static final int KASISKI_LIMIT = 1 << 16;
+	private static final int[] AFFINE_MULTIPLIERS = {1, 3, 5, 7, 9, 11, 15, 17, 19, 21, 23, 25};
+
+	/**
+	 * @param ciphertext output of CipherEncrypter.shiftCipher
+	 * @return most likely key in range 0..25, -1 if ciphertext has no letters
+	 */
+	public static int shiftKey(String ciphertext) {
+		long[] counts = letterCounts(ciphertext);
+		return total(counts) == 0 ? -1 : bestShift(counts, 0);
+	}
+
+	/**
+	 * Tries all 312 keys
+	 *
+	 * @param ciphertext output of CipherEncrypter.affineCipher
+	 * @return most likely key {a, b}, a in range 1..25, b in range 0..25, null if ciphertext has no letters
+	 */
+	public static int[] affineKey(String ciphertext) {
+		long[] counts = letterCounts(ciphertext);
+		if (total(counts) == 0) {
+			return null;
+		}
+		long[] decrypted = new long[LETTERS];
+		int[] best = null;
+		double bestScore = Double.MAX_VALUE;
+		for (int a : AFFINE_MULTIPLIERS) {
+			for (int b = 0; b < LETTERS; b++) {
+				// plaintext letter x was encrypted as (a * x + b) mod 26
+				for (int x = 0; x < LETTERS; x++) {
+					decrypted[x] = counts[(a * x + b) % LETTERS];
+				}
+				double score = chiSquared(decrypted);
+				if (score < bestScore) {
+					bestScore = score;
+					best = new int[]{a, b};
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds period with vigenerePeriod, then every column of key separately as shift key
+	 *
+	 * @param ciphertext output of CipherEncrypter.vigenereCipher of text without other symbols than letters
+	 * @param maxPeriod  longest key length tried
+	 * @return most likely key in lower case, null if ciphertext has no letters or maxPeriod is less than 1
+	 */
+	public static String vigenereKey(String ciphertext, int maxPeriod) {
+		byte[] letters = letters(ciphertext);
+		int period = vigenerePeriod(letters, maxPeriod);
+		if (period == -1) {
+			return null;
+		}
+		long[] counts = columnCounts(letters, letters.length, period);
+		char[] key = new char[period];
+		for (int column = 0; column < period; column++) {
+			key[column] = (char) (LOWER_A + bestShift(counts, column * LETTERS));
+		}
+		return new String(key);
+	}
+
+	/**
+	 * Periods whose columns have index of coincidence of English text are candidates,
+	 * multiples of key length are candidates too, so Kasiski examination chooses between them:
+	 * distances of repeated trigrams are mostly multiples of key length, less often of its multiples
+	 *
+	 * @param ciphertext output of CipherEncrypter.vigenereCipher of text without other symbols than letters
+	 * @param maxPeriod  longest key length tried
+	 * @return most likely key length, -1 if ciphertext has no letters or maxPeriod is less than 1
+	 */
+	public static int vigenerePeriod(String ciphertext, int maxPeriod) {
+		return vigenerePeriod(letters(ciphertext), maxPeriod);
+	}
+
+	/**
+	 * Hill climbing, restart k begins with key which maps letters by frequency with k random swaps, at most 26,
+	 * then swaps pairs of letters while bigram score improves
+	 * score of key is computed from bigram counts of ciphertext, so one step does not depend on text length
+	 * restarts run in parallel on common ForkJoin pool, result depends only on seed
+	 *
+	 * @param ciphertext output of CipherEncrypter.substitutionCipher
+	 * @param restarts   number of climbs, best one is returned
+	 * @param seed       seed of random swaps
+	 * @return most likely key as lowerCase argument of substitutionCipher, null if ciphertext has no letters
+	 * or restarts is less than 1
+	 */
+	public static char[] substitutionKey(String ciphertext, int restarts, long seed) {
+		char[] text = ciphertext.toCharArray();
+		long[] counts = count(LETTERS * LETTERS, text.length, (from, to, result) -> {
+			for (int i = from; i < to && i + 1 < text.length; i++) {
+				int first = letter(text[i]);
+				int second = letter(text[i + 1]);
+				if (first >= 0 && second >= 0) {
+					result[first * LETTERS + second]++;
+				}
+			}
+		});
+		long[] letterCounts = letterCounts(text);
+		if (restarts < 1 || total(letterCounts) == 0) {
+			return null;
+		}
+		int[] initial = frequencyKey(letterCounts);
+		int[][] results = new int[restarts][];
+		double[] scores = new double[restarts];
+		IntStream.range(0, restarts).parallel().forEach(restart -> {
+			SplittableRandom random = new SplittableRandom(seed + restart);
+			int[] key = initial.clone();
+			for (int i = 0; i < Math.min(restart, LETTERS); i++) {
+				swap(key, random.nextInt(LETTERS), random.nextInt(LETTERS));
+			}
+			scores[restart] = climb(key, counts);
+			results[restart] = key;
+		});
+		int best = 0;
+		for (int restart = 1; restart < restarts; restart++) {
+			if (scores[restart] > scores[best]) {
+				best = restart;
+			}
+		}
+		// results hold decryption, cipher letter c is plaintext letter key[c]
+		char[] lowerCase = new char[LETTERS];
+		for (int c = 0; c < LETTERS; c++) {
+			lowerCase[results[best][c]] = (char) (LOWER_A + c);
+		}
+		return lowerCase;
+	}
+
+	/**
+	 * @param text any text
+	 * @return counts of letters a..z, case is ignored
+	 */
+	public static long[] letterCounts(String text) {
+		return letterCounts(text.toCharArray());
+	}
+
+	public static long[] letterCounts(char[] text) {
+		return count(LETTERS, text.length, (from, to, result) -> {
+			for (int i = from; i < to; i++) {
+				int letter = letter(text[i]);
+				if (letter >= 0) {
+					result[letter]++;
+				}
+			}
+		});
+	}
+
+	/**
+	 * @param counts counts of letters a..z
+	 * @return chi-squared distance from English letter frequencies, smaller means more similar to English
+	 */
+	public static double chiSquared(long[] counts) {
+		double total = total(counts);
+		double result = 0;
+		for (int x = 0; x < LETTERS; x++) {
+			double expected = total * ENGLISH_FREQUENCIES[x];
+			double difference = counts[x] - expected;
+			result += difference * difference / expected;
+		}
+		return result;
+	}
+
+	/**
+	 * @param counts counts of letters a..z
+	 * @return probability that two letters chosen from text are same
+	 */
+	public static double indexOfCoincidence(long[] counts) {
+		double total = total(counts);
+		if (total < 2) {
+			return 0;
+		}
+		double same = 0;
+		for (long count : counts) {
+			same += (double) count * (count - 1);
+		}
+		return same / (total * (total - 1));
+	}
+
+	private static int vigenerePeriod(byte[] letters, int maxPeriod) {
+		if (maxPeriod < 1 || letters.length == 0) {
+			return -1;
+		}
+		maxPeriod = Math.min(maxPeriod, letters.length);
+		double[] coincidence = new double[maxPeriod + 1];
+		double best = 0;
+		for (int period = 1; period <= maxPeriod; period++) {
+			long[] counts = columnCounts(letters, letters.length, period);
+			double sum = 0;
+			for (int column = 0; column < period; column++) {
+				long[] columnCounts = new long[LETTERS];
+				System.arraycopy(counts, column * LETTERS, columnCounts, 0, LETTERS);
+				sum += indexOfCoincidence(columnCounts);
+			}
+			coincidence[period] = sum / period;
+			best = Math.max(best, coincidence[period]);
+		}
+		// short texts may not reach English value, then periods close to best one are candidates
+		double threshold = Math.min(ENGLISH_COINCIDENCE, 0.9 * best);
+		long[] kasiski = kasiskiCounts(letters, maxPeriod);
+		int result = -1;
+		for (int period = 1; period <= maxPeriod; period++) {
+			if (coincidence[period] >= threshold && (result == -1 || kasiski[period] > kasiski[result])) {
+				result = period;
+			}
+		}
+		return result;
+	}
+
+	/*
+	result[p] = number of repeated trigrams whose distance is multiple of p, only first KASISKI_LIMIT letters are examined
+	 */
+	private static long[] kasiskiCounts(byte[] letters, int maxPeriod) {
+		long[] result = new long[maxPeriod + 1];
+		int[] last = new int[LETTERS * LETTERS * LETTERS];
+		for (int i = 0; i < last.length; i++) {
+			last[i] = -1;
+		}
+		int limit = Math.min(letters.length, KASISKI_LIMIT);
+		for (int i = 0; i + 2 < limit; i++) {
+			int trigram = (letters[i] * LETTERS + letters[i + 1]) * LETTERS + letters[i + 2];
+			if (last[trigram] >= 0) {
+				int distance = i - last[trigram];
+				for (int period = 1; period <= maxPeriod; period++) {
+					if (distance % period == 0) {
+						result[period]++;
+					}
+				}
+			}
+			last[trigram] = i;
+		}
+		return result;
+	}
+
+	/*
+	counts of letters a..z of every column, letter i is in column i % period, counts of column c start at c * 26
+	 */
+	private static long[] columnCounts(byte[] letters, int length, int period) {
+		return count(period * LETTERS, length, (from, to, result) -> {
+			int column = from % period;
+			for (int i = from; i < to; i++) {
+				result[column * LETTERS + letters[i]]++;
+				if (++column == period) {
+					column = 0;
+				}
+			}
+		});
+	}
+
+	/*
+	shift which makes counts[offset..offset+25] most similar to English
+	 */
+	private static int bestShift(long[] counts, int offset) {
+		long[] decrypted = new long[LETTERS];
+		int best = 0;
+		double bestScore = Double.MAX_VALUE;
+		for (int shift = 0; shift < LETTERS; shift++) {
+			for (int x = 0; x < LETTERS; x++) {
+				decrypted[x] = counts[offset + (x + shift) % LETTERS];
+			}
+			double score = chiSquared(decrypted);
+			if (score < bestScore) {
+				bestScore = score;
+				best = shift;
+			}
+		}
+		return best;
+	}
+
+	/*
+	decryption key which maps k-th most common cipher letter to k-th most common English letter
+	 */
+	private static int[] frequencyKey(long[] counts) {
+		Integer[] cipherOrder = new Integer[LETTERS];
+		Integer[] englishOrder = new Integer[LETTERS];
+		for (int x = 0; x < LETTERS; x++) {
+			cipherOrder[x] = x;
+			englishOrder[x] = x;
+		}
+		Arrays.sort(cipherOrder, (first, second) -> Long.compare(counts[second], counts[first]));
+		Arrays.sort(englishOrder, (first, second) -> Double.compare(ENGLISH_FREQUENCIES[second], ENGLISH_FREQUENCIES[first]));
+		int[] key = new int[LETTERS];
+		for (int k = 0; k < LETTERS; k++) {
+			key[cipherOrder[k]] = englishOrder[k];
+		}
+		return key;
+	}
+
+	/*
+	swaps pairs of plaintext letters of key while score improves, returns final score
+	 */
+	private static double climb(int[] key, long[] bigramCounts) {
+		double score = score(key, bigramCounts);
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			for (int first = 0; first < LETTERS - 1; first++) {
+				for (int second = first + 1; second < LETTERS; second++) {
+					swap(key, first, second);
+					double candidate = score(key, bigramCounts);
+					if (candidate > score) {
+						score = candidate;
+						improved = true;
+					} else {
+						swap(key, first, second);
+					}
+				}
+			}
+		}
+		return score;
+	}
+
+	/*
+	log probability of plaintext given by decryption key, sum over bigrams of ciphertext
+	 */
+	private static double score(int[] key, long[] bigramCounts) {
+		double result = 0;
+		for (int first = 0; first < LETTERS; first++) {
+			int row = key[first] * LETTERS;
+			int offset = first * LETTERS;
+			for (int second = 0; second < LETTERS; second++) {
+				long count = bigramCounts[offset + second];
+				if (count != 0) {
+					result += count * BIGRAM_LOG_PROBABILITIES[row + key[second]];
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void swap(int[] key, int first, int second) {
+		int temp = key[first];
+		key[first] = key[second];
+		key[second] = temp;
+	}
+
+	/*
+	letters of text as values 0..25, other symbols are dropped
+	 */
+	private static byte[] letters(String text) {
+		byte[] result = new byte[text.length()];
+		int length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			int letter = letter(text.charAt(i));
+			if (letter >= 0) {
+				result[length++] = (byte) letter;
+			}
+		}
+		return length == result.length ? result : Arrays.copyOf(result, length);
+	}
+
+	/*
+	0..25 for letters of both cases, -1 for other symbols
+	 */
+	private static int letter(char c) {
+		if (c >= LOWER_A && c <= LOWER_Z) {
+			return c - LOWER_A;
+		}
+		if (c >= CAPITAL_A && c <= CAPITAL_Z) {
+			return c - CAPITAL_A;
+		}
+		return -1;
+	}
+
+	private static long total(long[] counts) {
+		long result = 0;
+		for (long count : counts) {
+			result += count;
+		}
+		return result;
+	}
+
+	private static double[] bigramLogProbabilities() {
+		double[] result = new double[ENGLISH_BIGRAMS.length];
+		for (int i = 0; i < result.length; i++) {
+			// bigram which was never seen gets half of smallest count, so one of them does not rule key out
+			result[i] = Math.log(Math.max(ENGLISH_BIGRAMS[i], 0.5) / 1e6);
+		}
+		return result;
+	}
+
+	/*
+	counts of one chunk [from, to) are added into result
+	 */
+	private interface ChunkCounter {
+		void count(int from, int to, long[] result);
+	}
+
+	private static long[] count(int size, int length, ChunkCounter counter) {
+		long chunks = ((long) length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		return ChunkCounts.sum(size, chunks, (chunk, result) -> {
+			int from = (int) chunk * CHUNK_SIZE;
+			counter.count(from, Math.min(length, from + CHUNK_SIZE), result);
+		});
+	}
+
+	private CipherAnalyzer() {
+		throw new IllegalStateException("Utility class");
+	}
+}
@@ -1,17 +1,26 @@
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
 
 /*
 P = finite set of possible plaintexts
 C = finite set of possible ciphertexts
 K = finite set of possible keys
+every cipher also has range forms, which read length chars of CharSequence or char[] starting at offset
+and write result into caller's char[] or CharBuffer, so steady use with reused buffers allocates nothing
+(source may be same array or buffer as output for in place work)
+CharBuffer without array is written char by char with absolute put
+String methods allocate result and call range form
  */
 public class CipherEncrypter {
 
 
-	private static final int ASCII_VALUE_OF_CAPITAL_A = 65;
-	private static final int ASCII_VALUE_OF_CAPITAL_Z = 90;
-	private static final int ASCII_VALUE_OF_LOWER_A = 97;
-	private static final int ASCII_VALUE_OF_LOWER_Z = 122;
-	private static final int NUMBER_OF_LETTERS_IN_ENGLISH = 26;
+	static final int ASCII_VALUE_OF_CAPITAL_A = 65;
+	static final int ASCII_VALUE_OF_CAPITAL_Z = 90;
+	static final int ASCII_VALUE_OF_LOWER_A = 97;
+	static final int ASCII_VALUE_OF_LOWER_Z = 122;
+	static final int NUMBER_OF_LETTERS_IN_ENGLISH = 26;
+	// largest hill block which is kept packed in long, 5 bits per letter
+	private static final int PACKED_HILL_BLOCK = 12;
 
 	/**
 	 * P = C = K = Z(26)
@@ -25,25 +34,122 @@ public class CipherEncrypter {
 		if (key < 0) {
 			return null;
 		}
-		StringBuilder result = new StringBuilder();
+		char[] result = new char[plaintext.length()];
+		return text(result, shiftCipher(key, plaintext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * shiftCipher on length chars of plaintext starting at offset, written into output starting at outputOffset
+	 *
+	 * @return number of chars written, always length, -1 if key is negative
+	 */
+	public static int shiftCipher(int key, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return shiftCipher(key, null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if key is negative
+	 */
+	public static int shiftCipher(int key, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return shiftCipher(key, plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * shiftCipher on length chars of plaintext starting at offset, written at position of output
+	 *
+	 * @return number of chars written, -1 if key is negative
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int shiftCipher(int key, CharSequence plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, shiftCipher(key, null, plaintext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if key is negative
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int shiftCipher(int key, char[] plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, shiftCipher(key, plaintext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int shiftCipher(int key, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (key < 0) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		shift(key % NUMBER_OF_LETTERS_IN_ENGLISH, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "shiftCipher", length, 1, length);
+	}
+
+	/**
+	 * Opposite of shiftCipher on letters, every char is moved like in shiftCipher with key 26 - key
+	 *
+	 * @param key        key used for encryption
+	 * @param ciphertext encrypted text
+	 * @return if int key is negative, will return null
+	 * else, will return plaintext as String
+	 */
+	public static String shiftCipherDecryption(int key, String ciphertext) {
+		if (key < 0) {
+			return null;
+		}
+		char[] result = new char[ciphertext.length()];
+		return text(result, shiftCipherDecryption(key, ciphertext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if key is negative
+	 */
+	public static int shiftCipherDecryption(int key, CharSequence ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return shiftCipherDecryption(key, null, ciphertext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if key is negative
+	 */
+	public static int shiftCipherDecryption(int key, char[] ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return shiftCipherDecryption(key, ciphertext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if key is negative
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int shiftCipherDecryption(int key, CharSequence ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, shiftCipherDecryption(key, null, ciphertext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if key is negative
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int shiftCipherDecryption(int key, char[] ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, shiftCipherDecryption(key, ciphertext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int shiftCipherDecryption(int key, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (key < 0) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
 		int validKey = key % NUMBER_OF_LETTERS_IN_ENGLISH;
-		for (int i = 0; i < plaintext.length(); i++) {
-			char currentChar = plaintext.charAt(i);
-			if ((int) currentChar >= ASCII_VALUE_OF_LOWER_A) {
-				if (currentChar + validKey <= ASCII_VALUE_OF_LOWER_Z) {
-					result.append((char) (currentChar + validKey));
-				} else {
-					result.append((char) (currentChar + validKey - NUMBER_OF_LETTERS_IN_ENGLISH));
-				}
+		shift(validKey == 0 ? 0 : NUMBER_OF_LETTERS_IN_ENGLISH - validKey, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "shiftCipherDecryption", length, 1, length);
+	}
+
+	/*
+	helper for shift cipher, chars from 'a' up wrap after 'z', others after 'Z'
+	 */
+	private static void shift(int validKey, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		for (int i = 0; i < length; i++) {
+			char currentChar = charAt(array, text, offset + i);
+			int limit = currentChar >= ASCII_VALUE_OF_LOWER_A ? ASCII_VALUE_OF_LOWER_Z : ASCII_VALUE_OF_CAPITAL_Z;
+			if (currentChar + validKey <= limit) {
+				put(output, buffer, outputOffset + i, (char) (currentChar + validKey));
 			} else {
-				if (currentChar + validKey <= ASCII_VALUE_OF_CAPITAL_Z) {
-					result.append((char) (currentChar + validKey));
-				} else {
-					result.append((char) (currentChar + validKey - NUMBER_OF_LETTERS_IN_ENGLISH));
-				}
+				put(output, buffer, outputOffset + i, (char) (currentChar + validKey - NUMBER_OF_LETTERS_IN_ENGLISH));
 			}
 		}
-		return result.toString();
 	}
 
 	/**
@@ -57,47 +163,261 @@ public class CipherEncrypter {
 	 * else, will return ciphertext as String
 	 */
 	public static String substitutionCipher(char[] lowerCase, char[] upperCase, String plaintext) {
-		if (lowerCase == null || upperCase == null || lowerCase.length != NUMBER_OF_LETTERS_IN_ENGLISH || upperCase.length != NUMBER_OF_LETTERS_IN_ENGLISH) {
+		if (!validateSubstitution(lowerCase, upperCase)) {
 			return null;
 		}
-		StringBuilder result = new StringBuilder();
-		int position;
-		char currentChar;
-		for (int i = 0; i < plaintext.length(); i++) {
-			currentChar = plaintext.charAt(i);
-			if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
-				position = currentChar - ASCII_VALUE_OF_LOWER_A;
-				result.append(lowerCase[position]);
-			} else if (currentChar >= ASCII_VALUE_OF_CAPITAL_A && currentChar <= ASCII_VALUE_OF_CAPITAL_Z) {
-				position = currentChar - ASCII_VALUE_OF_CAPITAL_A;
-				result.append(upperCase[position]);
-			} else {
-				result.append(currentChar);
-			}
+		char[] result = new char[plaintext.length()];
+		return text(result, substitutionCipher(lowerCase, upperCase, plaintext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length,
+	 * -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 */
+	public static int substitutionCipher(char[] lowerCase, char[] upperCase, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipher(lowerCase, upperCase, null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length,
+	 * -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 */
+	public static int substitutionCipher(char[] lowerCase, char[] upperCase, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipher(lowerCase, upperCase, plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipher(char[] lowerCase, char[] upperCase, CharSequence plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipher(lowerCase, upperCase, null, plaintext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipher(char[] lowerCase, char[] upperCase, char[] plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipher(lowerCase, upperCase, plaintext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int substitutionCipher(char[] lowerCase, char[] upperCase, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateSubstitution(lowerCase, upperCase)) {
+			return -1;
 		}
-		return result.toString();
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		substitute(lowerCase, upperCase, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "substitutionCipher", length, 2 * NUMBER_OF_LETTERS_IN_ENGLISH, length);
 	}
 
 	/*
 	if plaintext consists of only lower case letters
 	 */
 	public static String substitutionCipher(char[] lowerCase, String plaintext) {
-		if (lowerCase == null || lowerCase.length != NUMBER_OF_LETTERS_IN_ENGLISH) {
+		if (!validateSubstitution(lowerCase)) {
+			return null;
+		}
+		char[] result = new char[plaintext.length()];
+		return text(result, substitutionCipher(lowerCase, plaintext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if lowerCase equal to null, or has length other than 26
+	 */
+	public static int substitutionCipher(char[] lowerCase, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipher(lowerCase, null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if lowerCase equal to null, or has length other than 26
+	 */
+	public static int substitutionCipher(char[] lowerCase, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipher(lowerCase, plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if lowerCase equal to null, or has length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipher(char[] lowerCase, CharSequence plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipher(lowerCase, null, plaintext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if lowerCase equal to null, or has length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipher(char[] lowerCase, char[] plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipher(lowerCase, plaintext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int substitutionCipher(char[] lowerCase, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateSubstitution(lowerCase)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		substitute(lowerCase, null, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "substitutionCipher", length, NUMBER_OF_LETTERS_IN_ENGLISH, length);
+	}
+
+	/**
+	 * Opposite of substitutionCipher, char found in lowerCase becomes lower case letter at its position,
+	 * else char found in upperCase becomes upper case letter at its position, other chars stay same
+	 *
+	 * @param lowerCase  substitution for lower case letters used for encryption
+	 * @param upperCase  substitution for upper case letters used for encryption
+	 * @param ciphertext encrypted text
+	 * @return if either of lowerCase,upperCase equal to null, or have length other than 26, will return null string
+	 * else, will return plaintext as String
+	 */
+	public static String substitutionCipherDecryption(char[] lowerCase, char[] upperCase, String ciphertext) {
+		if (!validateSubstitution(lowerCase, upperCase)) {
+			return null;
+		}
+		char[] result = new char[ciphertext.length()];
+		return text(result, substitutionCipherDecryption(lowerCase, upperCase, ciphertext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length,
+	 * -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, char[] upperCase, CharSequence ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipherDecryption(lowerCase, upperCase, null, ciphertext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length,
+	 * -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, char[] upperCase, char[] ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipherDecryption(lowerCase, upperCase, ciphertext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, char[] upperCase, CharSequence ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipherDecryption(lowerCase, upperCase, null, ciphertext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if either of lowerCase, upperCase equal to null, or have length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, char[] upperCase, char[] ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipherDecryption(lowerCase, upperCase, ciphertext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int substitutionCipherDecryption(char[] lowerCase, char[] upperCase, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateSubstitution(lowerCase, upperCase)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		unsubstitute(lowerCase, upperCase, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "substitutionCipherDecryption", length, 2 * NUMBER_OF_LETTERS_IN_ENGLISH, length);
+	}
+
+	/*
+	opposite of substitutionCipher with only lower case substitution
+	 */
+	public static String substitutionCipherDecryption(char[] lowerCase, String ciphertext) {
+		if (!validateSubstitution(lowerCase)) {
 			return null;
 		}
-		StringBuilder result = new StringBuilder();
-		int position;
-		char currentChar;
-		for (int i = 0; i < plaintext.length(); i++) {
-			currentChar = plaintext.charAt(i);
+		char[] result = new char[ciphertext.length()];
+		return text(result, substitutionCipherDecryption(lowerCase, ciphertext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if lowerCase equal to null, or has length other than 26
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, CharSequence ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipherDecryption(lowerCase, null, ciphertext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if lowerCase equal to null, or has length other than 26
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, char[] ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return substitutionCipherDecryption(lowerCase, ciphertext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if lowerCase equal to null, or has length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, CharSequence ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipherDecryption(lowerCase, null, ciphertext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if lowerCase equal to null, or has length other than 26
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int substitutionCipherDecryption(char[] lowerCase, char[] ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, substitutionCipherDecryption(lowerCase, ciphertext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int substitutionCipherDecryption(char[] lowerCase, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateSubstitution(lowerCase)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		unsubstitute(lowerCase, null, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "substitutionCipherDecryption", length, NUMBER_OF_LETTERS_IN_ENGLISH, length);
+	}
+
+	private static boolean validateSubstitution(char[] substitution) {
+		return substitution != null && substitution.length == NUMBER_OF_LETTERS_IN_ENGLISH;
+	}
+
+	private static boolean validateSubstitution(char[] lowerCase, char[] upperCase) {
+		return validateSubstitution(lowerCase) && validateSubstitution(upperCase);
+	}
+
+	/*
+	helper for substitution cipher, upperCase is null when only lower case letters are substituted
+	 */
+	private static void substitute(char[] lowerCase, char[] upperCase, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		for (int i = 0; i < length; i++) {
+			char currentChar = charAt(array, text, offset + i);
 			if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
-				position = currentChar - ASCII_VALUE_OF_LOWER_A;
-				result.append(lowerCase[position]);
+				put(output, buffer, outputOffset + i, lowerCase[currentChar - ASCII_VALUE_OF_LOWER_A]);
+			} else if (upperCase != null && currentChar >= ASCII_VALUE_OF_CAPITAL_A && currentChar <= ASCII_VALUE_OF_CAPITAL_Z) {
+				put(output, buffer, outputOffset + i, upperCase[currentChar - ASCII_VALUE_OF_CAPITAL_A]);
+			} else {
+				put(output, buffer, outputOffset + i, currentChar);
+			}
+		}
+	}
+
+	/*
+	helper for substitution decryption, every char is looked up in lowerCase and then in upperCase
+	 */
+	private static void unsubstitute(char[] lowerCase, char[] upperCase, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		for (int i = 0; i < length; i++) {
+			char currentChar = charAt(array, text, offset + i);
+			int position = indexOf(lowerCase, currentChar);
+			if (position >= 0) {
+				put(output, buffer, outputOffset + i, (char) (ASCII_VALUE_OF_LOWER_A + position));
+			} else if (upperCase != null && (position = indexOf(upperCase, currentChar)) >= 0) {
+				put(output, buffer, outputOffset + i, (char) (ASCII_VALUE_OF_CAPITAL_A + position));
 			} else {
-				result.append(currentChar);
+				put(output, buffer, outputOffset + i, currentChar);
 			}
 		}
-		return result.toString();
+	}
+
+	private static int indexOf(char[] substitution, char currentChar) {
+		for (int i = 0; i < substitution.length; i++) {
+			if (substitution[i] == currentChar) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**
@@ -113,28 +433,139 @@ public class CipherEncrypter {
 	 * else, ciphertext as String
 	 */
 	public static String affineCipher(int a, int b, String plaintext) {
-		if (a < 0 || b < 0 || gcdOfTwoNumber(a, NUMBER_OF_LETTERS_IN_ENGLISH) != 1) {
+		if (!validateAffineKey(a, b)) {
 			return null;
 		}
-		StringBuilder result = new StringBuilder();
-		char currentChar;
-		int temp;
-		for (int i = 0; i < plaintext.length(); i++) {
-			currentChar = plaintext.charAt(i);
+		char[] result = new char[plaintext.length()];
+		return text(result, affineCipher(a, b, plaintext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if either of a or b is negative number, or gcd of a and 26 is not 1
+	 */
+	public static int affineCipher(int a, int b, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return affineCipher(a, b, null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if either of a or b is negative number, or gcd of a and 26 is not 1
+	 */
+	public static int affineCipher(int a, int b, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return affineCipher(a, b, plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if either of a or b is negative number, or gcd of a and 26 is not 1
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int affineCipher(int a, int b, CharSequence plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, affineCipher(a, b, null, plaintext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if either of a or b is negative number, or gcd of a and 26 is not 1
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int affineCipher(int a, int b, char[] plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, affineCipher(a, b, plaintext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int affineCipher(int a, int b, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateAffineKey(a, b)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		affine(a % NUMBER_OF_LETTERS_IN_ENGLISH, b % NUMBER_OF_LETTERS_IN_ENGLISH, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "affineCipher", length, 2, length);
+	}
+
+	/**
+	 * Opposite of affineCipher, decryption = a^(-1) * (y - b) mod 26
+	 *
+	 * @param a          used for encryption
+	 * @param b          used for encryption
+	 * @param ciphertext encrypted text
+	 * @return if a is not positive, b is negative number, or gcd of a and 26 is not 1, will return null String
+	 * else, plaintext as String
+	 */
+	public static String affineCipherDecryption(int a, int b, String ciphertext) {
+		if (a <= 0 || !validateAffineKey(a, b)) {
+			return null;
+		}
+		char[] result = new char[ciphertext.length()];
+		return text(result, affineCipherDecryption(a, b, ciphertext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if a is not positive, b is negative number, or gcd of a and 26 is not 1
+	 */
+	public static int affineCipherDecryption(int a, int b, CharSequence ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return affineCipherDecryption(a, b, null, ciphertext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if a is not positive, b is negative number, or gcd of a and 26 is not 1
+	 */
+	public static int affineCipherDecryption(int a, int b, char[] ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return affineCipherDecryption(a, b, ciphertext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if a is not positive, b is negative number, or gcd of a and 26 is not 1
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int affineCipherDecryption(int a, int b, CharSequence ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, affineCipherDecryption(a, b, null, ciphertext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if a is not positive, b is negative number, or gcd of a and 26 is not 1
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int affineCipherDecryption(int a, int b, char[] ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, affineCipherDecryption(a, b, ciphertext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int affineCipherDecryption(int a, int b, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		// a = 0 passes gcd check but maps every letter to b, so it cannot be reversed
+		if (a <= 0 || !validateAffineKey(a, b)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		// decryption is affine cipher with a' = a^(-1) and b' = a^(-1) * (26 - b)
+		int validA = a % NUMBER_OF_LETTERS_IN_ENGLISH;
+		int inverse = 1;
+		while (validA * inverse % NUMBER_OF_LETTERS_IN_ENGLISH != 1) {
+			inverse++;
+		}
+		int validB = NUMBER_OF_LETTERS_IN_ENGLISH - b % NUMBER_OF_LETTERS_IN_ENGLISH;
+		affine(inverse, inverse * validB % NUMBER_OF_LETTERS_IN_ENGLISH, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "affineCipherDecryption", length, 2, length);
+	}
+
+	/*
+	helper for affine cipher, a and b in range 0..25
+	 */
+	private static void affine(int a, int b, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		for (int i = 0; i < length; i++) {
+			char currentChar = charAt(array, text, offset + i);
 			if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
-				temp = (a * (currentChar - ASCII_VALUE_OF_LOWER_A) + b) % NUMBER_OF_LETTERS_IN_ENGLISH;
-				result.append((char) (temp + ASCII_VALUE_OF_LOWER_A));
+				int temp = (a * (currentChar - ASCII_VALUE_OF_LOWER_A) + b) % NUMBER_OF_LETTERS_IN_ENGLISH;
+				put(output, buffer, outputOffset + i, (char) (temp + ASCII_VALUE_OF_LOWER_A));
 			} else if (currentChar >= ASCII_VALUE_OF_CAPITAL_A && currentChar <= ASCII_VALUE_OF_CAPITAL_Z) {
-				temp = (a * (currentChar - ASCII_VALUE_OF_CAPITAL_A) + b) % NUMBER_OF_LETTERS_IN_ENGLISH;
-				result.append((char) (temp + ASCII_VALUE_OF_CAPITAL_A));
+				int temp = (a * (currentChar - ASCII_VALUE_OF_CAPITAL_A) + b) % NUMBER_OF_LETTERS_IN_ENGLISH;
+				put(output, buffer, outputOffset + i, (char) (temp + ASCII_VALUE_OF_CAPITAL_A));
 			} else {
-				result.append(currentChar);
+				put(output, buffer, outputOffset + i, currentChar);
 			}
 		}
-		return result.toString();
 	}
 
-	private static int gcdOfTwoNumber(int first, int second) {
+	private static boolean validateAffineKey(int a, int b) {
+		return a >= 0 && b >= 0 && gcdOfTwoNumber(a, NUMBER_OF_LETTERS_IN_ENGLISH) == 1;
+	}
+
+	static int gcdOfTwoNumber(int first, int second) {
 		int result = 1;
 		for (int i = 1; i <= first && i <= second; i++) {
 			if (first % i == 0 && second % i == 0) {
@@ -154,41 +585,197 @@ public class CipherEncrypter {
 	 * else will return ciphertext as String
 	 */
 	public static String vigenereCipher(String key, String plaintext) {
-		if (key == null || key.length() == 0) {
+		if (!validateVigenereKey(key)) {
 			return null;
 		}
-		StringBuilder result = new StringBuilder();
-		int[] keyArray = new int[key.length()];
-		for (int i = 0; i < keyArray.length; i++) {
-			char currentChar = key.charAt(i);
+		char[] result = new char[plaintext.length()];
+		return text(result, vigenereCipher(key, plaintext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * vigenereCipher on range, symbols other than letters are dropped but still use key position,
+	 * first char of range uses first letter of key
+	 *
+	 * @param output must have space for length chars
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipher(String key, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return vigenereCipher(key, null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @param output must have space for length chars
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipher(String key, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return vigenereCipher(key, plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int vigenereCipher(String key, CharSequence plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, vigenereCipher(key, 0, null, plaintext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int vigenereCipher(String key, char[] plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, vigenereCipher(key, 0, plaintext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * vigenereCipher on range which continues longer text, so parts of one text can be encrypted separately
+	 *
+	 * @param keyPosition index of key letter used for first char of range, for example number of chars before range
+	 * @param output      must have space for length chars
+	 * @return number of chars written, -1 if key null, length of key = 0 or keyPosition is negative
+	 */
+	public static int vigenereCipher(String key, int keyPosition, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return vigenereCipher(key, keyPosition, null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @param keyPosition index of key letter used for first char of range
+	 * @param output      must have space for length chars
+	 * @return number of chars written, -1 if key null, length of key = 0 or keyPosition is negative
+	 */
+	public static int vigenereCipher(String key, int keyPosition, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return vigenereCipher(key, keyPosition, plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	private static int vigenereCipher(String key, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		return vigenereCipher(key, 0, array, text, offset, length, output, buffer, outputOffset);
+	}
+
+	private static int vigenereCipher(String key, int keyPosition, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateVigenereKey(key) || keyPosition < 0) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		int written = vigenere(key, keyPosition % key.length(), false, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "vigenereCipher", length, key.length(), written);
+	}
+
+	/**
+	 * Opposite of vigenereCipher, letters are moved back by key, symbols other than letters are dropped
+	 * but still use key position, so ciphertext of text with only letters gives back that text
+	 *
+	 * @param key        key used for encryption
+	 * @param ciphertext encrypted text
+	 * @return if key null or length of key =0, will return null,
+	 * else will return plaintext as String
+	 */
+	public static String vigenereCipherDecryption(String key, String ciphertext) {
+		if (!validateVigenereKey(key)) {
+			return null;
+		}
+		char[] result = new char[ciphertext.length()];
+		return text(result, vigenereCipherDecryption(key, ciphertext, 0, result.length, result, 0));
+	}
+
+	/**
+	 * @param output must have space for length chars
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipherDecryption(String key, CharSequence ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return vigenereCipherDecryption(key, null, ciphertext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @param output must have space for length chars
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipherDecryption(String key, char[] ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return vigenereCipherDecryption(key, ciphertext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int vigenereCipherDecryption(String key, CharSequence ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, vigenereCipherDecryption(key, null, ciphertext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if key null or length of key = 0
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int vigenereCipherDecryption(String key, char[] ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, vigenereCipherDecryption(key, ciphertext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	private static int vigenereCipherDecryption(String key, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (!validateVigenereKey(key)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		int written = vigenere(key, 0, true, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, "vigenereCipherDecryption", length, key.length(), written);
+	}
+
+	private static boolean validateVigenereKey(String key) {
+		return key != null && key.length() != 0;
+	}
+
+	/*
+	helper for vigenere cipher, shift of key letter is read from key for every char, so key is not copied
+	first char uses key letter at keyPosition, 0 <= keyPosition < key length
+	 */
+	private static int vigenere(String key, int keyPosition, boolean decryption, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		int written = 0;
+		for (int i = 0, j = keyPosition; i < length; i++) {
+			char currentChar = charAt(array, text, offset + i);
+			int limit;
 			if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
-				keyArray[i] = currentChar - ASCII_VALUE_OF_LOWER_A;
+				limit = ASCII_VALUE_OF_LOWER_Z;
 			} else if (currentChar >= ASCII_VALUE_OF_CAPITAL_A && currentChar <= ASCII_VALUE_OF_CAPITAL_Z) {
-				keyArray[i] = currentChar - ASCII_VALUE_OF_CAPITAL_A;
+				limit = ASCII_VALUE_OF_CAPITAL_Z;
+			} else {
+				limit = 0;
 			}
-		}
-		for (int i = 0, j = 0; i < plaintext.length(); i++) {
-			char currentChar = plaintext.charAt(i);
-			if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
-				if (currentChar + keyArray[j] <= ASCII_VALUE_OF_LOWER_Z) {
-					result.append((char) (currentChar + keyArray[j]));
-				} else {
-					result.append((char) (currentChar + keyArray[j] - NUMBER_OF_LETTERS_IN_ENGLISH));
+			if (limit != 0) {
+				int shift = vigenereShift(key.charAt(j));
+				if (decryption && shift != 0) {
+					shift = NUMBER_OF_LETTERS_IN_ENGLISH - shift;
 				}
-			} else if (currentChar >= ASCII_VALUE_OF_CAPITAL_A && currentChar <= ASCII_VALUE_OF_CAPITAL_Z) {
-				if (currentChar + keyArray[j] <= ASCII_VALUE_OF_CAPITAL_Z) {
-					result.append((char) (currentChar + keyArray[j]));
+				if (currentChar + shift <= limit) {
+					put(output, buffer, outputOffset + written++, (char) (currentChar + shift));
 				} else {
-					result.append((char) (currentChar + keyArray[j] - NUMBER_OF_LETTERS_IN_ENGLISH));
+					put(output, buffer, outputOffset + written++, (char) (currentChar + shift - NUMBER_OF_LETTERS_IN_ENGLISH));
 				}
 			}
-			if (j < keyArray.length - 1) {
+			if (j < key.length() - 1) {
 				j++;
 			} else {
 				j = 0;
 			}
 		}
-		return result.toString();
+		return written;
+	}
+
+	/*
+	helper for vigenere cipher, shift of every key letter, other symbols give shift 0
+	 */
+	static int[] vigenereKey(String key) {
+		int[] keyArray = new int[key.length()];
+		for (int i = 0; i < keyArray.length; i++) {
+			keyArray[i] = vigenereShift(key.charAt(i));
+		}
+		return keyArray;
+	}
+
+	private static int vigenereShift(char currentChar) {
+		if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
+			return currentChar - ASCII_VALUE_OF_LOWER_A;
+		} else if (currentChar >= ASCII_VALUE_OF_CAPITAL_A && currentChar <= ASCII_VALUE_OF_CAPITAL_Z) {
+			return currentChar - ASCII_VALUE_OF_CAPITAL_A;
+		}
+		return 0;
 	}
 
 	/**
@@ -202,53 +789,251 @@ public class CipherEncrypter {
 	 * else ciphertext as String
 	 */
 	public static String hillCipher(int[][] key, String plaintext) {
-		if (key == null || key.length != key[0].length || key.length < 2 || key[0].length < 2) {
+		int[] matrix = hillKey(key);
+		if (matrix == null) {
 			return null;
-		} else if (plaintext.length() % key.length != 0 || !validateString(plaintext) || determinantOfMatrix(key, key.length) == 0) {
+		}
+		char[] result = new char[plaintext.length()];
+		return text(result, hill(matrix, key.length, "hillCipher", null, plaintext, 0, result.length, result, null, 0));
+	}
+
+	/**
+	 * hillCipher on range, key is checked and flattened on every call, which allocates few arrays of n x n values,
+	 * hillCipher with key from hillKey does not
+	 *
+	 * @return number of chars written, always length, -1 if plaintext or key is not valid
+	 */
+	public static int hillCipher(int[][] key, CharSequence plaintext, int offset, int length, char[] output, int outputOffset) {
+		return hill(hillKey(key), "hillCipher", null, plaintext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if plaintext or key is not valid
+	 */
+	public static int hillCipher(int[][] key, char[] plaintext, int offset, int length, char[] output, int outputOffset) {
+		return hill(hillKey(key), "hillCipher", plaintext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if plaintext or key is not valid
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int hillCipher(int[][] key, CharSequence plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, hill(hillKey(key), "hillCipher", null, plaintext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if plaintext or key is not valid
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int hillCipher(int[][] key, char[] plaintext, int offset, int length, CharBuffer output) {
+		return advance(output, hill(hillKey(key), "hillCipher", plaintext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * Opposite of hillCipher, decryption is = y * Key^(-1)
+	 *
+	 * @param key        nxn matrix of integers used as key for encryption
+	 * @param ciphertext encrypted text
+	 * @return if ciphertext or key is not valid, will return null String
+	 * else plaintext as String of lower case letters
+	 */
+	public static String hillCipherDecryption(int[][] key, String ciphertext) {
+		int[] matrix = hillDecryptionKey(key);
+		if (matrix == null) {
 			return null;
 		}
-		StringBuilder result = new StringBuilder();
-		for (int i = 0; i < plaintext.length(); i = i + key.length) {
-			int[][] temp = new int[1][key.length];
-			for (int j = 0; j < key.length; j++) {
-				if (plaintext.charAt(i + j) >= ASCII_VALUE_OF_LOWER_A && plaintext.charAt(i + j) <= ASCII_VALUE_OF_LOWER_Z) {
-					temp[0][j] = plaintext.charAt(i + j) - ASCII_VALUE_OF_LOWER_A;
-				} else {
-					temp[0][j] = plaintext.charAt(i + j) - ASCII_VALUE_OF_CAPITAL_A;
-				}
-			}
-			temp = matrixMultiplyMod26(temp, key);
-			for (int j = 0; j < temp[0].length; j++) {
-				result.append((char) (temp[0][j] + ASCII_VALUE_OF_LOWER_A));
+		char[] result = new char[ciphertext.length()];
+		return text(result, hill(matrix, key.length, "hillCipherDecryption", null, ciphertext, 0, result.length, result, null, 0));
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if ciphertext or key is not valid
+	 */
+	public static int hillCipherDecryption(int[][] key, CharSequence ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return hill(hillDecryptionKey(key), "hillCipherDecryption", null, ciphertext, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, always length, -1 if ciphertext or key is not valid
+	 */
+	public static int hillCipherDecryption(int[][] key, char[] ciphertext, int offset, int length, char[] output, int outputOffset) {
+		return hill(hillDecryptionKey(key), "hillCipherDecryption", ciphertext, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @return number of chars written, -1 if ciphertext or key is not valid
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int hillCipherDecryption(int[][] key, CharSequence ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, hill(hillDecryptionKey(key), "hillCipherDecryption", null, ciphertext, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @return number of chars written, -1 if ciphertext or key is not valid
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int hillCipherDecryption(int[][] key, char[] ciphertext, int offset, int length, CharBuffer output) {
+		return advance(output, hill(hillDecryptionKey(key), "hillCipherDecryption", ciphertext, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * Checks and flattens key once, for hillCipher range methods which take flat matrix
+	 *
+	 * @param key nxn matrix of integers used as key
+	 * @return key as flat array with values in range 0..25, null if key is not valid
+	 */
+	public static int[] hillKey(int[][] key) {
+		return validateHillKey(key) ? MatrixMod26.flatten(key) : null;
+	}
+
+	/**
+	 * Inverts key once, hillCipher range methods with this matrix decrypt
+	 *
+	 * @param key nxn matrix of integers used as key for encryption
+	 * @return inverse of key as flat array with values in range 0..25, null if key is not valid
+	 */
+	public static int[] hillDecryptionKey(int[][] key) {
+		return validateHillShape(key) ? MatrixMod26.inverse(key) : null;
+	}
+
+	/**
+	 * hillCipher with matrix from hillKey, or decryption with matrix from hillDecryptionKey,
+	 * matrix is not checked again, so steady use allocates nothing
+	 *
+	 * @param matrix flat n x n matrix with values in range 0..25
+	 * @return number of chars written, always length, -1 if text is not valid or matrix is not n x n
+	 */
+	public static int hillCipher(int[] matrix, CharSequence text, int offset, int length, char[] output, int outputOffset) {
+		return hill(matrix, "hillCipher", null, text, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @param matrix flat n x n matrix with values in range 0..25
+	 * @return number of chars written, always length, -1 if text is not valid or matrix is not n x n
+	 */
+	public static int hillCipher(int[] matrix, char[] text, int offset, int length, char[] output, int outputOffset) {
+		return hill(matrix, "hillCipher", text, null, offset, length, output, null, outputOffset);
+	}
+
+	/**
+	 * @param matrix flat n x n matrix with values in range 0..25
+	 * @return number of chars written, -1 if text is not valid or matrix is not n x n
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int hillCipher(int[] matrix, CharSequence text, int offset, int length, CharBuffer output) {
+		return advance(output, hill(matrix, "hillCipher", null, text, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/**
+	 * @param matrix flat n x n matrix with values in range 0..25
+	 * @return number of chars written, -1 if text is not valid or matrix is not n x n
+	 * @throws BufferOverflowException if output has less than length chars remaining
+	 */
+	public static int hillCipher(int[] matrix, char[] text, int offset, int length, CharBuffer output) {
+		return advance(output, hill(matrix, "hillCipher", text, null, offset, length, array(output, length), output, outputOffset(output)));
+	}
+
+	/*
+	helper for hill cipher range methods, size of flat matrix is found from its length
+	 */
+	private static int hill(int[] matrix, String name, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (matrix == null) {
+			return -1;
+		}
+		int n = (int) Math.sqrt(matrix.length);
+		if (n < 2 || n * n != matrix.length) {
+			return -1;
+		}
+		return hill(matrix, n, name, array, text, offset, length, output, buffer, outputOffset);
+	}
+
+	private static int hill(int[] matrix, int n, String name, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (length % n != 0 || !validateString(array, text, offset, length)) {
+			return -1;
+		}
+		CipherMetrics.CipherEvent event = CipherMetrics.start();
+		hillTransform(matrix, n, array, text, offset, length, output, buffer, outputOffset);
+		return CipherMetrics.stop(event, name, length, n * n, length);
+	}
+
+	/*
+	helper for hill cipher, key must be square, at least 2x2 and invertible mod 26
+	 */
+	static boolean validateHillKey(int[][] key) {
+		return validateHillShape(key) && MatrixMod26.isInvertible(key);
+	}
+
+	private static boolean validateHillShape(int[][] key) {
+		if (key == null || key.length < 2) {
+			return false;
+		}
+		for (int[] row : key) {
+			if (row == null || row.length != key.length) {
+				return false;
 			}
 		}
-		return result.toString();
+		return true;
 	}
 
 	/*
-	helper for hill cipher, multiplies two matrices in Z(26)
-	 */
-	private static int[][] matrixMultiplyMod26(int[][] first, int[][] second) {
-		int[][] result = new int[first.length][second[0].length];
-		for (int i = 0; i < first.length; i++) {
-			for (int j = 0; j < first[0].length; j++) {
-				int temp = 0;
-				for (int k = 0; k < second.length; k++) {
-					temp = temp + first[i][k] * second[k][j];
+	helper for hill cipher, multiplies every block of text by flat n x n matrix in Z(26)
+	whole block is read before it is written, so output may be source of text
+	block of up to PACKED_HILL_BLOCK letters is kept in long, so only larger keys allocate block arrays
+	 */
+	private static void hillTransform(int[] matrix, int n, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		if (n > PACKED_HILL_BLOCK) {
+			hillTransformLarge(matrix, n, array, text, offset, length, output, buffer, outputOffset);
+			return;
+		}
+		for (int i = 0; i < length; i = i + n) {
+			long block = 0;
+			for (int j = 0; j < n; j++) {
+				block |= (long) letter(charAt(array, text, offset + i + j)) << (5 * j);
+			}
+			for (int col = 0; col < n; col++) {
+				int sum = 0;
+				long rest = block;
+				for (int k = col; k < matrix.length; k += n) {
+					sum += ((int) rest & 31) * matrix[k];
+					rest >>>= 5;
 				}
-				result[i][j] = temp % 26;
+				put(output, buffer, outputOffset + i + col, (char) (sum % NUMBER_OF_LETTERS_IN_ENGLISH + ASCII_VALUE_OF_LOWER_A));
+			}
+		}
+	}
+
+	private static void hillTransformLarge(int[] matrix, int n, char[] array, CharSequence text, int offset, int length, char[] output, CharBuffer buffer, int outputOffset) {
+		int[] block = new int[n];
+		int[] product = new int[n];
+		for (int i = 0; i < length; i = i + n) {
+			for (int j = 0; j < n; j++) {
+				block[j] = letter(charAt(array, text, offset + i + j));
+			}
+			MatrixMod26.multiplyRow(block, matrix, n, product);
+			for (int j = 0; j < n; j++) {
+				put(output, buffer, outputOffset + i + j, (char) (product[j] + ASCII_VALUE_OF_LOWER_A));
 			}
 		}
-		return result;
+	}
+
+	/*
+	helper for hill cipher, letter in range 0..25 of either case
+	 */
+	private static int letter(char currentChar) {
+		if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
+			return currentChar - ASCII_VALUE_OF_LOWER_A;
+		}
+		return currentChar - ASCII_VALUE_OF_CAPITAL_A;
 	}
 
 	/*
 	helper for hill cipher validates that plaintext does not contain other symbols except letters
 	 */
-	private static boolean validateString(String input) {
-		int i =0;
-		while(i<input.length()){
-			int currentChar = input.charAt(i);
+	private static boolean validateString(char[] array, CharSequence input, int offset, int length) {
+		int i = offset;
+		while (i < offset + length) {
+			int currentChar = charAt(array, input, i);
 			i++;
 			if (currentChar >= ASCII_VALUE_OF_LOWER_A && currentChar <= ASCII_VALUE_OF_LOWER_Z) {
 				continue;
@@ -262,47 +1047,52 @@ public class CipherEncrypter {
 	}
 
 	/*
-	helper method for finding determinant
-	as input takes matrix, and two ints p and q to find cofactor of matrix[p][q]
-	 */
-	private static int[][] getCofactor(int[][] key, int p, int q) {
-		int i = 0;
-		int j = 0;
-		int[][] result = new int[key.length][key.length];
-		for (int row = 0; row < key.length; row++) {
-			for (int col = 0; col < key.length; col++) {
-				if (row != p && col != q) {
-					result[i][j++] = key[row][col];
-					if (j == key.length - 1) {
-						j = 0;
-						i++;
-					}
-				}
-			}
+	helper for String methods, null when range method rejected input
+	 */
+	private static String text(char[] result, int written) {
+		return written < 0 ? null : new String(result, 0, written);
+	}
+
+	/*
+	source of every helper is array when it is not null, else text
+	test does not change inside loop, so JIT moves it out of loop
+	 */
+	private static char charAt(char[] array, CharSequence text, int index) {
+		return array != null ? array[index] : text.charAt(index);
+	}
+
+	/*
+	destination of every helper is output when it is not null, else buffer by absolute index
+	 */
+	private static void put(char[] output, CharBuffer buffer, int index, char value) {
+		if (output != null) {
+			output[index] = value;
+		} else {
+			buffer.put(index, value);
 		}
-		return result;
 	}
 
 	/*
-	helper method for hill cipher, finds determinant of matrix
-	as input takes matrix and its dimention
-	recursive function
-	 */
-	private static int determinantOfMatrix(int[][] key, int size) {
-		int[][] cofactor;
-		int result = 0;
-		if (size == 1) {
-			return key[0][0];
-		}
-		int sign = 1;
-		for (int i = 0; i < size; i++) {
-			cofactor = getCofactor(key, 0, i);
-			result = result + sign * key[0][i] * determinantOfMatrix(cofactor, size - 1);
-			sign = -sign;
+	helpers for CharBuffer methods, array of heap buffer is written directly, other buffers by absolute put,
+	position moves only after cipher is done
+	 */
+	private static char[] array(CharBuffer output, int length) {
+		if (output.remaining() < length) {
+			throw new BufferOverflowException();
 		}
-		return result;
+		return output.hasArray() ? output.array() : null;
+	}
+
+	private static int outputOffset(CharBuffer output) {
+		return output.hasArray() ? output.arrayOffset() + output.position() : output.position();
 	}
 
+	private static int advance(CharBuffer output, int written) {
+		if (written > 0) {
+			output.position(output.position() + written);
+		}
+		return written;
+	}
 
 	private CipherEncrypter() {
 		throw new IllegalStateException("Utility class");
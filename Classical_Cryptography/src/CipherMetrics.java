@@ -0,0 +1,109 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Map;
+
+/*
+optional instrumentation of CipherEncrypter and AdvancedCipherEncrypter, off unless JVM runs with -Dcipher.metrics=true
+ENABLED is static final, so when it is false JIT folds every check away and instrumented methods run as before
+when it is true every call updates counters and latency histogram of its operation
+and is JFR event cryptography.CipherOperation, which is recorded only while JFR recording has this event enabled
+ */
+public class CipherMetrics {
+	public static final boolean ENABLED = Boolean.getBoolean("cipher.metrics");
+
+	private static final OperationRegistry OPERATIONS = new OperationRegistry();
+
+	/**
+	 * @param operation name of instrumented method
+	 * @return statistics of operation, null if it was never called with metrics enabled
+	 */
+	public static OperationStatistics statistics(String operation) {
+		return OPERATIONS.statistics(operation);
+	}
+
+	/**
+	 * @return statistics of every called operation, sorted by name
+	 */
+	public static Map<String, OperationStatistics> operations() {
+		return OPERATIONS.operations();
+	}
+
+	/**
+	 * Forgets statistics of every operation
+	 */
+	public static void reset() {
+		OPERATIONS.reset();
+	}
+
+	/*
+	called at start of instrumented code, null if metrics are disabled
+	 */
+	static CipherEvent start() {
+		if (!ENABLED) {
+			return null;
+		}
+		CipherEvent event = new CipherEvent();
+		event.begin();
+		event.startNanos = System.nanoTime();
+		return event;
+	}
+
+	/*
+	called at end of instrumented code with event from start, gives back result of instrumented code
+	 */
+	static <T> T stop(CipherEvent event, String operation, long inputSize, long keySize, T result) {
+		if (ENABLED) {
+			record(event, operation, inputSize, keySize);
+		}
+		return result;
+	}
+
+	/*
+	same as stop for methods which return count of chars, so result is not boxed
+	 */
+	static int stop(CipherEvent event, String operation, long inputSize, long keySize, int result) {
+		if (ENABLED) {
+			record(event, operation, inputSize, keySize);
+		}
+		return result;
+	}
+
+	private static void record(CipherEvent event, String operation, long inputSize, long keySize) {
+		long elapsed = System.nanoTime() - event.startNanos;
+		OPERATIONS.record(operation, elapsed, inputSize);
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.inputSize = inputSize;
+			event.keySize = keySize;
+			event.commit();
+		}
+	}
+
+	@Name("cryptography.CipherOperation")
+	@Label("Cipher Operation")
+	@Category("Cryptography")
+	@Description("Call of CipherEncrypter or AdvancedCipherEncrypter")
+	@StackTrace(false)
+	static class CipherEvent extends Event {
+		@Label("Operation")
+		String operation;
+		@Label("Input Size")
+		@Description("Characters of text or bits of block")
+		long inputSize;
+		@Label("Key Size")
+		@Description("Letters of key, or bits of key of substitution permutation network")
+		long keySize;
+		// not part of event, start time of statistics
+		transient long startNanos;
+	}
+
+	private CipherMetrics() {
+		throw new IllegalStateException("Utility class");
+	}
+}
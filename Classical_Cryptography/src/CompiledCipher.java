@@ -0,0 +1,127 @@
+/*
+shift, substitution and affine ciphers compiled for one key
+every char is translated by lookup in table of all 65536 chars, which is built once with same rules
+as CipherEncrypter methods, key is validated only when cipher is compiled
+instances are immutable and can be shared between threads
+ */
+public class CompiledCipher {
+	private static final int TABLE_SIZE = Character.MAX_VALUE + 1;
+
+	private static final int LOWER_A = CipherEncrypter.ASCII_VALUE_OF_LOWER_A;
+	private static final int LOWER_Z = CipherEncrypter.ASCII_VALUE_OF_LOWER_Z;
+	private static final int CAPITAL_A = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_A;
+	private static final int CAPITAL_Z = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_Z;
+	private static final int LETTERS = CipherEncrypter.NUMBER_OF_LETTERS_IN_ENGLISH;
+
+	private final char[] table;
+
+	private CompiledCipher(char[] table) {
+		this.table = table;
+	}
+
+	/**
+	 * @param key for how many letters each char will be moved
+	 * @return compiled CipherEncrypter.shiftCipher, null if key is negative
+	 */
+	public static CompiledCipher shiftCipher(int key) {
+		if (key < 0) {
+			return null;
+		}
+		int validKey = key % LETTERS;
+		char[] table = new char[TABLE_SIZE];
+		for (int c = 0; c < TABLE_SIZE; c++) {
+			int limit = c >= LOWER_A ? LOWER_Z : CAPITAL_Z;
+			table[c] = (char) (c + validKey <= limit ? c + validKey : c + validKey - LETTERS);
+		}
+		return new CompiledCipher(table);
+	}
+
+	/**
+	 * @return compiled CipherEncrypter.substitutionCipher(lowerCase, upperCase, plaintext),
+	 * null if either of lowerCase, upperCase equal to null, or have length other than 26
+	 */
+	public static CompiledCipher substitutionCipher(char[] lowerCase, char[] upperCase) {
+		if (lowerCase == null || upperCase == null || lowerCase.length != LETTERS || upperCase.length != LETTERS) {
+			return null;
+		}
+		char[] table = identity();
+		System.arraycopy(lowerCase, 0, table, LOWER_A, LETTERS);
+		System.arraycopy(upperCase, 0, table, CAPITAL_A, LETTERS);
+		return new CompiledCipher(table);
+	}
+
+	/**
+	 * @return compiled CipherEncrypter.substitutionCipher(lowerCase, plaintext),
+	 * null if lowerCase equal to null, or has length other than 26
+	 */
+	public static CompiledCipher substitutionCipher(char[] lowerCase) {
+		if (lowerCase == null || lowerCase.length != LETTERS) {
+			return null;
+		}
+		char[] table = identity();
+		System.arraycopy(lowerCase, 0, table, LOWER_A, LETTERS);
+		return new CompiledCipher(table);
+	}
+
+	/**
+	 * @return compiled CipherEncrypter.affineCipher, null if either of a or b is negative number, or gcd of a and 26 is not 1
+	 */
+	public static CompiledCipher affineCipher(int a, int b) {
+		if (a < 0 || b < 0 || CipherEncrypter.gcdOfTwoNumber(a, LETTERS) != 1) {
+			return null;
+		}
+		char[] table = identity();
+		for (int x = 0; x < LETTERS; x++) {
+			int temp = (a * x + b) % LETTERS;
+			table[LOWER_A + x] = (char) (temp + LOWER_A);
+			table[CAPITAL_A + x] = (char) (temp + CAPITAL_A);
+		}
+		return new CompiledCipher(table);
+	}
+
+	/**
+	 * @param plaintext original text
+	 * @return ciphertext as String, same as CipherEncrypter method with this key
+	 */
+	public String encrypt(String plaintext) {
+		char[] text = plaintext.toCharArray();
+		encrypt(text, 0, text.length, text, 0);
+		return new String(text);
+	}
+
+	/**
+	 * Encrypts text in place
+	 *
+	 * @param text chars to encrypt
+	 * @return text
+	 */
+	public char[] encrypt(char[] text) {
+		encrypt(text, 0, text.length, text, 0);
+		return text;
+	}
+
+	/**
+	 * Encrypts length chars of input starting at offset into output starting at outputOffset
+	 * input and output can be same array
+	 *
+	 * @return number of chars written, always length
+	 */
+	public int encrypt(char[] input, int offset, int length, char[] output, int outputOffset) {
+		char[] table = this.table;
+		for (int i = 0; i < length; i++) {
+			output[outputOffset + i] = table[input[offset + i]];
+		}
+		return length;
+	}
+
+	/*
+	table which leaves every char unchanged
+	 */
+	private static char[] identity() {
+		char[] table = new char[TABLE_SIZE];
+		for (int c = 0; c < TABLE_SIZE; c++) {
+			table[c] = (char) c;
+		}
+		return table;
+	}
+}
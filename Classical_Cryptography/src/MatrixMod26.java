@@ -0,0 +1,193 @@
+/*
+matrix arithmetic over Z(26) for hill cipher
+Z(26) is not a field, so elimination is done in Z(2) and Z(13) and results are joined by Chinese remainder theorem
+determinant, invertibility check and inverse all take O(n^3) time
+matrices are n x n, either int[][] or flat int[n * n] in row order
+ */
+public class MatrixMod26 {
+	private static final int MODULUS = 26;
+	private static final int FIRST_PRIME = 2;
+	private static final int SECOND_PRIME = 13;
+
+	/**
+	 * @param matrix n x n matrix of integers
+	 * @return determinant of matrix mod 26, in range 0..25
+	 */
+	public static int determinant(int[][] matrix) {
+		int n = matrix.length;
+		int first = eliminate(reduce(matrix, FIRST_PRIME), n, FIRST_PRIME, null);
+		int second = eliminate(reduce(matrix, SECOND_PRIME), n, SECOND_PRIME, null);
+		return chineseRemainder(first, second);
+	}
+
+	/**
+	 * Matrix is invertible over Z(26) when gcd of its determinant and 26 is 1
+	 *
+	 * @param matrix n x n matrix of integers
+	 * @return true if matrix has inverse mod 26
+	 */
+	public static boolean isInvertible(int[][] matrix) {
+		int det = determinant(matrix);
+		return det % FIRST_PRIME != 0 && det % SECOND_PRIME != 0;
+	}
+
+	/**
+	 * @param matrix n x n matrix of integers
+	 * @return inverse of matrix mod 26 as flat array with values in range 0..25, null if matrix is not invertible
+	 */
+	public static int[] inverse(int[][] matrix) {
+		int n = matrix.length;
+		int[] first = new int[n * n];
+		int[] second = new int[n * n];
+		if (eliminate(reduce(matrix, FIRST_PRIME), n, FIRST_PRIME, first) == 0) {
+			return null;
+		}
+		if (eliminate(reduce(matrix, SECOND_PRIME), n, SECOND_PRIME, second) == 0) {
+			return null;
+		}
+		int[] result = new int[n * n];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = chineseRemainder(first[i], second[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @param matrix n x n matrix of integers
+	 * @return matrix as flat array with values in range 0..25
+	 */
+	public static int[] flatten(int[][] matrix) {
+		return reduce(matrix, MODULUS);
+	}
+
+	/**
+	 * result = row * matrix mod 26
+	 *
+	 * @param row    vector of n values in range 0..25
+	 * @param matrix flat n x n matrix with values in range 0..25
+	 * @param n      size
+	 * @param result vector of n values, must not be row
+	 */
+	public static void multiplyRow(int[] row, int[] matrix, int n, int[] result) {
+		for (int col = 0; col < n; col++) {
+			result[col] = 0;
+		}
+		for (int k = 0; k < n; k++) {
+			int value = row[k];
+			int offset = k * n;
+			for (int col = 0; col < n; col++) {
+				result[col] += value * matrix[offset + col];
+			}
+		}
+		for (int col = 0; col < n; col++) {
+			result[col] %= MODULUS;
+		}
+	}
+
+	/*
+	copies matrix into flat array, every value reduced into range 0..modulus-1
+	 */
+	private static int[] reduce(int[][] matrix, int modulus) {
+		int n = matrix.length;
+		int[] result = new int[n * n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				int value = matrix[i][j] % modulus;
+				result[i * n + j] = value < 0 ? value + modulus : value;
+			}
+		}
+		return result;
+	}
+
+	/*
+	Gauss-Jordan elimination of flat matrix a over Z(prime), a is destroyed
+	if inverse is not null, inverse of a is written into it
+	returns determinant mod prime, 0 means that matrix is not invertible and inverse is not valid
+	 */
+	private static int eliminate(int[] a, int n, int prime, int[] inverse) {
+		if (inverse != null) {
+			for (int i = 0; i < n; i++) {
+				inverse[i * n + i] = 1;
+			}
+		}
+		int det = 1;
+		for (int col = 0; col < n; col++) {
+			int pivot = col;
+			while (pivot < n && a[pivot * n + col] == 0) {
+				pivot++;
+			}
+			if (pivot == n) {
+				return 0;
+			}
+			if (pivot != col) {
+				swapRows(a, n, pivot, col);
+				if (inverse != null) {
+					swapRows(inverse, n, pivot, col);
+				}
+				det = prime - det;
+			}
+			int value = a[col * n + col];
+			det = det * value % prime;
+			int valueInverse = inverseModPrime(value, prime);
+			scaleRow(a, n, col, valueInverse, prime);
+			if (inverse != null) {
+				scaleRow(inverse, n, col, valueInverse, prime);
+			}
+			for (int row = inverse != null ? 0 : col + 1; row < n; row++) {
+				int factor = a[row * n + col];
+				if (row == col || factor == 0) {
+					continue;
+				}
+				subtractRow(a, n, row, col, factor, prime);
+				if (inverse != null) {
+					subtractRow(inverse, n, row, col, factor, prime);
+				}
+			}
+		}
+		return det % prime;
+	}
+
+	private static void swapRows(int[] a, int n, int first, int second) {
+		for (int j = 0; j < n; j++) {
+			int temp = a[first * n + j];
+			a[first * n + j] = a[second * n + j];
+			a[second * n + j] = temp;
+		}
+	}
+
+	private static void scaleRow(int[] a, int n, int row, int factor, int prime) {
+		for (int j = 0; j < n; j++) {
+			a[row * n + j] = a[row * n + j] * factor % prime;
+		}
+	}
+
+	/*
+	row = row - factor * source
+	 */
+	private static void subtractRow(int[] a, int n, int row, int source, int factor, int prime) {
+		for (int j = 0; j < n; j++) {
+			a[row * n + j] = (a[row * n + j] + (prime - factor) * a[source * n + j]) % prime;
+		}
+	}
+
+	private static int inverseModPrime(int value, int prime) {
+		for (int x = 1; x < prime; x++) {
+			if (value * x % prime == 1) {
+				return x;
+			}
+		}
+		throw new ArithmeticException("Not invertible");
+	}
+
+	/*
+	x mod 26 such that x = first mod 2 and x = second mod 13
+	13 = 1 mod 2 = 0 mod 13, 14 = 0 mod 2 = 1 mod 13
+	 */
+	private static int chineseRemainder(int first, int second) {
+		return (SECOND_PRIME * first + (SECOND_PRIME + 1) * second) % MODULUS;
+	}
+
+	private MatrixMod26() {
+		throw new IllegalStateException("Utility class");
+	}
+}
@@ -0,0 +1,298 @@
+/*
+packed form of substitution permutation network from AdvancedCipherEncrypter
+block of blockLength bits is stored in long words, bit i of block is bit (63 - i % 64) of words[i / 64]
+round keys, s-box and p-box are turned into lookup tables once, so round is xor, lookups and shifts
+instances are created by AdvancedCipherEncrypter.packedNetwork and are immutable
+ */
+public class PackedSubstitutionPermutationNetwork {
+	private final int blockLength;
+	private final int words;
+	private final int nibbles;
+	private final int numberOfRounds;
+	private final int[] substitutionBox;
+	// roundKeys[r * words + w] = key bits which xorWithKey uses in round r
+	private final long[] roundKeys;
+	// table[(nibble * 16 + value) * words + w] = s-box of value placed at nibble, then moved by p-box
+	private final long[] table;
+	// inverse of substitutionBox, null if s-box is not a permutation
+	private final int[] inverseSubstitutionBox;
+	// inverseTable[(nibble * 16 + value) * words + w] = inverse s-box of value placed at nibble, then moved back by p-box
+	private final long[] inverseTable;
+	// inverseRoundKeys[r * words + w] = roundKeys of round r moved back by p-box
+	private final long[] inverseRoundKeys;
+	// false if p-box moves two bits to same position, then rounds can not be undone
+	private final boolean permutation;
+
+	PackedSubstitutionPermutationNetwork(int blockLength, int numberOfRounds, int[] key, int[] substitutionBoxIn, int[] permutationBox) {
+		this.blockLength = blockLength;
+		this.words = (blockLength + 63) >>> 6;
+		this.nibbles = blockLength >>> 2;
+		this.numberOfRounds = numberOfRounds;
+		this.substitutionBox = substitutionBoxIn.clone();
+		roundKeys = new long[numberOfRounds * words];
+		for (int round = 0; round < numberOfRounds; round++) {
+			int j = (round * 4) % key.length;
+			for (int i = 0; i < blockLength; i++) {
+				if (key[j] == 1) {
+					roundKeys[round * words + (i >>> 6)] |= 1L << (63 - (i & 63));
+				}
+				j = j == key.length - 1 ? 0 : j + 1;
+			}
+		}
+		table = new long[nibbles * 16 * words];
+		inverseSubstitutionBox = inverse(substitutionBox);
+		inverseTable = new long[nibbles * 16 * words];
+		inverseRoundKeys = new long[numberOfRounds * words];
+		// p-box is used only when there are more than 2 rounds
+		int[] source = numberOfRounds > 2 ? permutationSource(blockLength, permutationBox) : null;
+		permutation = source == null || isPermutation(source);
+		if (source != null) {
+			for (int k = 0; k < blockLength; k++) {
+				int i = source[k];
+				for (int value = 0; value < 16; value++) {
+					if (((substitutionBox[value] >>> (3 - (i & 3))) & 1) == 1) {
+						table[((i >>> 2) * 16 + value) * words + (k >>> 6)] |= 1L << (63 - (k & 63));
+					}
+					if (inverseSubstitutionBox != null && ((inverseSubstitutionBox[value] >>> (3 - (k & 3))) & 1) == 1) {
+						inverseTable[((k >>> 2) * 16 + value) * words + (i >>> 6)] |= 1L << (63 - (i & 63));
+					}
+				}
+				for (int round = 0; round < numberOfRounds; round++) {
+					if (((roundKeys[round * words + (k >>> 6)] >>> (63 - (k & 63))) & 1) == 1) {
+						inverseRoundKeys[round * words + (i >>> 6)] |= 1L << (63 - (i & 63));
+					}
+				}
+			}
+		}
+	}
+
+	public int getBlockLength() {
+		return blockLength;
+	}
+
+	public int[] getSubstitutionBox() {
+		return substitutionBox.clone();
+	}
+
+	/**
+	 * Encrypts one bit array block in place, same as AdvancedCipherEncrypter.substitutionPermutationNetwork
+	 *
+	 * @param plaintext array of 0 and 1 of blockLength
+	 * @return plaintext with ciphertext bits, or empty array if length of plaintext is not blockLength
+	 */
+	public int[] encrypt(int[] plaintext) {
+		if (plaintext == null || plaintext.length != blockLength) {
+			return new int[0];
+		}
+		long[] state = pack(plaintext);
+		encrypt(state);
+		unpack(state, plaintext);
+		return plaintext;
+	}
+
+	/**
+	 * Encrypts block of at most 64 bits
+	 *
+	 * @param block plaintext as number, first bit of block is highest bit (blockLength - 1)
+	 * @return ciphertext in same form
+	 */
+	public long encrypt(long block) {
+		if (words != 1) {
+			throw new IllegalStateException("Block length is more than 64 bits");
+		}
+		int unused = 64 - blockLength;
+		long state = block << unused;
+		int round = 0;
+		while (round < numberOfRounds - 2) {
+			state ^= roundKeys[round];
+			long next = 0;
+			for (int n = 0, shift = 60; n < nibbles; n++, shift -= 4) {
+				next |= table[(n << 4) | (int) ((state >>> shift) & 15)];
+			}
+			state = next;
+			round++;
+		}
+		state ^= roundKeys[round];
+		long next = 0;
+		for (int n = 0, shift = 60; n < nibbles; n++, shift -= 4) {
+			next |= (long) substitutionBox[(int) ((state >>> shift) & 15)] << shift;
+		}
+		state = next ^ roundKeys[round + 1];
+		return state >>> unused;
+	}
+
+	/**
+	 * Decrypts block of at most 64 bits, opposite of encrypt(long)
+	 * inverse round is inverse s-box of inverse p-box, key xor between them is moved in front of inverse p-box,
+	 * so inverse s-box joins inverse p-box of next round in one table and round is xor, lookups and shifts
+	 *
+	 * @param block ciphertext as number, first bit of block is highest bit (blockLength - 1)
+	 * @return plaintext in same form
+	 * @throws IllegalStateException if block is longer than 64 bits, s-box or p-box is not a permutation
+	 */
+	public long decrypt(long block) {
+		if (words != 1) {
+			throw new IllegalStateException("Block length is more than 64 bits");
+		}
+		if (inverseSubstitutionBox == null) {
+			throw new IllegalStateException("S-box is not invertible");
+		}
+		if (!permutation) {
+			throw new IllegalStateException("P-box is not invertible");
+		}
+		int unused = 64 - blockLength;
+		int round = numberOfRounds - 2;
+		long state = (block << unused) ^ roundKeys[round + 1];
+		while (round > 0) {
+			long previous = 0;
+			for (int n = 0, shift = 60; n < nibbles; n++, shift -= 4) {
+				previous |= inverseTable[(n << 4) | (int) ((state >>> shift) & 15)];
+			}
+			state = previous ^ inverseRoundKeys[round];
+			round--;
+		}
+		state = substitute(state, inverseSubstitutionBox) ^ roundKeys[0];
+		return state >>> unused;
+	}
+
+	/**
+	 * @return true if s-box and p-box are permutations, so decrypt can be used
+	 */
+	public boolean isInvertible() {
+		return inverseSubstitutionBox != null && permutation;
+	}
+
+	/**
+	 * Encrypts packed block in place
+	 *
+	 * @param block words of block, see pack
+	 * @return block with ciphertext
+	 */
+	public long[] encrypt(long[] block) {
+		if (block == null || block.length != words) {
+			throw new IllegalArgumentException("Invalid block");
+		}
+		if ((blockLength & 63) != 0) {
+			block[words - 1] &= -1L << (64 - (blockLength & 63));
+		}
+		long[] next = new long[words];
+		int round = 0;
+		while (round < numberOfRounds - 2) {
+			xorWithKey(block, round);
+			for (int w = 0; w < words; w++) {
+				next[w] = 0;
+			}
+			for (int n = 0; n < nibbles; n++) {
+				int base = ((n << 4) | nibble(block, n)) * words;
+				for (int w = 0; w < words; w++) {
+					next[w] |= table[base + w];
+				}
+			}
+			System.arraycopy(next, 0, block, 0, words);
+			round++;
+		}
+		xorWithKey(block, round);
+		for (int n = 0; n < nibbles; n++) {
+			int shift = 60 - ((n & 15) << 2);
+			block[n >>> 4] = (block[n >>> 4] & ~(15L << shift)) | (long) substitutionBox[nibble(block, n)] << shift;
+		}
+		xorWithKey(block, round + 1);
+		return block;
+	}
+
+	/**
+	 * Packs bit array into words, bit i goes to bit (63 - i % 64) of word i / 64
+	 *
+	 * @param bits array of 0 and 1
+	 * @return packed words
+	 */
+	public static long[] pack(int[] bits) {
+		long[] result = new long[(bits.length + 63) >>> 6];
+		for (int i = 0; i < bits.length; i++) {
+			result[i >>> 6] |= (long) (bits[i] & 1) << (63 - (i & 63));
+		}
+		return result;
+	}
+
+	/**
+	 * Opposite of pack, writes bits of words into bits array
+	 */
+	public static int[] unpack(long[] words, int[] bits) {
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = (int) (words[i >>> 6] >>> (63 - (i & 63))) & 1;
+		}
+		return bits;
+	}
+
+	/*
+	box applied to every nibble of block in highest blockLength bits of state
+	 */
+	private long substitute(long state, int[] box) {
+		long result = 0;
+		for (int n = 0, shift = 60; n < nibbles; n++, shift -= 4) {
+			result |= (long) box[(int) ((state >>> shift) & 15)] << shift;
+		}
+		return result;
+	}
+
+	private static int[] inverse(int[] box) {
+		int[] inverse = new int[16];
+		boolean[] seen = new boolean[16];
+		for (int value = 0; value < 16; value++) {
+			if (seen[box[value]]) {
+				return null;
+			}
+			seen[box[value]] = true;
+			inverse[box[value]] = value;
+		}
+		return inverse;
+	}
+
+	private static boolean isPermutation(int[] source) {
+		boolean[] seen = new boolean[source.length];
+		for (int i : source) {
+			if (seen[i]) {
+				return false;
+			}
+			seen[i] = true;
+		}
+		return true;
+	}
+
+	private void xorWithKey(long[] block, int round) {
+		for (int w = 0; w < words; w++) {
+			block[w] ^= roundKeys[round * words + w];
+		}
+	}
+
+	private static int nibble(long[] block, int n) {
+		return (int) (block[n >>> 4] >>> (60 - ((n & 15) << 2))) & 15;
+	}
+
+	/*
+	runs AdvancedCipherEncrypter.permutationBox on positions instead of bits
+	source[k] = position of bit which ends at position k
+	 */
+	static int[] permutationSource(int blockLength, int[] permutationBox) {
+		int[] source = new int[blockLength];
+		for (int k = 0; k < blockLength; k++) {
+			source[k] = k;
+		}
+		int i = 0;
+		int j;
+		int temp = 0;
+		while (i < blockLength) {
+			j = 0;
+			while (j < permutationBox.length) {
+				if (i == blockLength) {
+					break;
+				}
+				source[permutationBox[j] + temp] = i;
+				i++;
+				j++;
+			}
+			temp = temp + j;
+		}
+		return source;
+	}
+}
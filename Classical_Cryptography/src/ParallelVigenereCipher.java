@@ -0,0 +1,146 @@
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+multi-core form of CipherEncrypter.vigenereCipher
+key position at input index i is i % key length, so input is split into chunks which are encrypted independently
+vigenere drops symbols other than letters, so first pass counts letters of every chunk to find its output offset,
+second pass encrypts every chunk straight into its place in output
+output is same as CipherEncrypter.vigenereCipher
+ */
+public class ParallelVigenereCipher {
+	public static final int CHUNK_SIZE = 1 << 16;
+
+	private static final int LOWER_A = CipherEncrypter.ASCII_VALUE_OF_LOWER_A;
+	private static final int LOWER_Z = CipherEncrypter.ASCII_VALUE_OF_LOWER_Z;
+	private static final int CAPITAL_A = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_A;
+	private static final int CAPITAL_Z = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_Z;
+
+	/**
+	 * @param key       String which will be used as key, same as in CipherEncrypter.vigenereCipher
+	 * @param plaintext original text
+	 * @return if key null or length of key = 0, will return null,
+	 * else will return ciphertext as String
+	 */
+	public static String vigenereCipher(String key, String plaintext) {
+		char[] result = vigenereCipher(key, CharBuffer.wrap(plaintext.toCharArray()));
+		return result == null ? null : new String(result);
+	}
+
+	/**
+	 * Encrypts remaining chars of plaintext on common ForkJoin pool, position of plaintext is not changed
+	 *
+	 * @return ciphertext of exact length, or null if key null or length of key = 0
+	 */
+	public static char[] vigenereCipher(String key, CharBuffer plaintext) {
+		if (key == null || key.length() == 0) {
+			return null;
+		}
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int[] offsets = countLetters(plaintext, pool);
+		char[] result = new char[offsets[offsets.length - 1]];
+		pool.invoke(new ChunkTask(plaintext, key, offsets, result, 0, 0, offsets.length - 1));
+		return result;
+	}
+
+	/**
+	 * Encrypts remaining chars of plaintext into output on given pool, position of plaintext is not changed
+	 *
+	 * @param output       destination, must have space for plaintext.remaining() chars
+	 * @param outputOffset first position to write
+	 * @return number of chars written, or -1 if key null or length of key = 0
+	 */
+	public static int vigenereCipher(String key, CharBuffer plaintext, char[] output, int outputOffset, ForkJoinPool pool) {
+		if (key == null || key.length() == 0) {
+			return -1;
+		}
+		int[] offsets = countLetters(plaintext, pool);
+		pool.invoke(new ChunkTask(plaintext, key, offsets, output, outputOffset, 0, offsets.length - 1));
+		return offsets[offsets.length - 1];
+	}
+
+	/*
+	first pass, offsets[c] = number of letters before chunk c, last value is total
+	 */
+	private static int[] countLetters(CharBuffer plaintext, ForkJoinPool pool) {
+		int chunks = (plaintext.remaining() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		int[] offsets = new int[chunks + 1];
+		pool.invoke(new ChunkTask(plaintext, null, offsets, null, 0, 0, chunks));
+		int total = 0;
+		for (int c = 0; c < chunks; c++) {
+			int count = offsets[c + 1];
+			offsets[c + 1] = total + count;
+			total += count;
+		}
+		return offsets;
+	}
+
+	/*
+	processes chunks [from, to) of plaintext
+	when output is null, counts letters of chunk c into offsets[c + 1], else encrypts chunk c at offsets[c]
+	chunk is read from array of plaintext, or through CharSequence if plaintext has no array, so it is never copied
+	 */
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final CharBuffer plaintext;
+		private final String key;
+		private final int[] offsets;
+		private final char[] output;
+		private final int outputOffset;
+		private final int from;
+		private final int to;
+
+		ChunkTask(CharBuffer plaintext, String key, int[] offsets, char[] output, int outputOffset, int from, int to) {
+			this.plaintext = plaintext;
+			this.key = key;
+			this.offsets = offsets;
+			this.output = output;
+			this.outputOffset = outputOffset;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ChunkTask(plaintext, key, offsets, output, outputOffset, from, middle),
+						new ChunkTask(plaintext, key, offsets, output, outputOffset, middle, to));
+				return;
+			}
+			if (to == from) {
+				return;
+			}
+			int start = from * CHUNK_SIZE;
+			int length = Math.min(CHUNK_SIZE, plaintext.remaining() - start);
+			char[] chunk = plaintext.hasArray() ? plaintext.array() : null;
+			int chunkOffset = chunk != null ? plaintext.arrayOffset() + plaintext.position() + start : start;
+			if (output == null) {
+				offsets[from + 1] = countLetters(chunk, chunkOffset, length);
+			} else if (chunk != null) {
+				CipherEncrypter.vigenereCipher(key, start, chunk, chunkOffset, length, output, outputOffset + offsets[from]);
+			} else {
+				CipherEncrypter.vigenereCipher(key, start, plaintext, chunkOffset, length, output, outputOffset + offsets[from]);
+			}
+		}
+
+		/*
+		without array, chars are read relative to position of plaintext
+		 */
+		private int countLetters(char[] chunk, int offset, int length) {
+			int count = 0;
+			for (int i = offset; i < offset + length; i++) {
+				char currentChar = chunk != null ? chunk[i] : plaintext.charAt(i);
+				if ((currentChar >= LOWER_A && currentChar <= LOWER_Z) || (currentChar >= CAPITAL_A && currentChar <= CAPITAL_Z)) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+
+	private ParallelVigenereCipher() {
+		throw new IllegalStateException("Utility class");
+	}
+}
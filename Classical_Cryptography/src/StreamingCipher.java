@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+streaming form of ciphers from CipherEncrypter
+text is processed in fixed size chunks, so memory use does not depend on length of input
+cipher state (vigenere key position, unfinished hill block) is kept between chunks
+output is same as CipherEncrypter method on whole text
+byte sources are read as ASCII text, one byte is one char
+one instance encrypts one stream, instances are not thread safe
+ */
+public abstract class StreamingCipher {
+	public static final int CHUNK_SIZE = 8192;
+	// size of file window mapped at once by transform(Path, Path)
+	public static final long MAPPED_WINDOW_SIZE = 64L << 20;
+
+	private static final int LOWER_A = CipherEncrypter.ASCII_VALUE_OF_LOWER_A;
+	private static final int LOWER_Z = CipherEncrypter.ASCII_VALUE_OF_LOWER_Z;
+	private static final int CAPITAL_A = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_A;
+	private static final int CAPITAL_Z = CipherEncrypter.ASCII_VALUE_OF_CAPITAL_Z;
+	private static final int LETTERS = CipherEncrypter.NUMBER_OF_LETTERS_IN_ENGLISH;
+
+	/**
+	 * Encrypts next chunk of text
+	 *
+	 * @param input        chars of text
+	 * @param offset       first char of chunk
+	 * @param length       number of chars in chunk
+	 * @param output       destination, must have space for length + maxPending() chars
+	 * @param outputOffset first position to write
+	 * @return number of chars written
+	 */
+	public abstract int update(char[] input, int offset, int length, char[] output, int outputOffset);
+
+	/**
+	 * Checks that whole text was consumed, call after last chunk
+	 *
+	 * @throws IllegalStateException if cipher still holds chars which can not be encrypted
+	 */
+	public void finish() {
+	}
+
+	/**
+	 * @return number of chars which cipher can keep between chunks
+	 */
+	public int maxPending() {
+		return 0;
+	}
+
+	/**
+	 * @param key for how many letters each char will be moved
+	 * @return streaming form of CipherEncrypter.shiftCipher, null if key is negative
+	 */
+	public static StreamingCipher shiftCipher(int key) {
+		if (key < 0) {
+			return null;
+		}
+		return new Shift(key);
+	}
+
+	/**
+	 * @return streaming form of CipherEncrypter.substitutionCipher(lowerCase, upperCase, plaintext),
+	 * null if either of lowerCase, upperCase equal to null, or have length other than 26
+	 */
+	public static StreamingCipher substitutionCipher(char[] lowerCase, char[] upperCase) {
+		if (lowerCase == null || upperCase == null || lowerCase.length != LETTERS || upperCase.length != LETTERS) {
+			return null;
+		}
+		return new Substitution(lowerCase.clone(), upperCase.clone());
+	}
+
+	/**
+	 * @return streaming form of CipherEncrypter.substitutionCipher(lowerCase, plaintext),
+	 * null if lowerCase equal to null, or has length other than 26
+	 */
+	public static StreamingCipher substitutionCipher(char[] lowerCase) {
+		if (lowerCase == null || lowerCase.length != LETTERS) {
+			return null;
+		}
+		return new Substitution(lowerCase.clone(), null);
+	}
+
+	/**
+	 * @return streaming form of CipherEncrypter.affineCipher,
+	 * null if either of a or b is negative number, or gcd of a and 26 is not 1
+	 */
+	public static StreamingCipher affineCipher(int a, int b) {
+		if (a < 0 || b < 0 || CipherEncrypter.gcdOfTwoNumber(a, LETTERS) != 1) {
+			return null;
+		}
+		return new Affine(a, b);
+	}
+
+	/**
+	 * @return streaming form of CipherEncrypter.vigenereCipher, null if key null or length of key = 0
+	 */
+	public static StreamingCipher vigenereCipher(String key) {
+		if (key == null || key.length() == 0) {
+			return null;
+		}
+		return new Vigenere(key);
+	}
+
+	/**
+	 * Streaming form of CipherEncrypter.hillCipher
+	 * update throws IllegalArgumentException on char which is not letter,
+	 * finish throws IllegalStateException if length of text is not multiple of key size
+	 *
+	 * @return null if key is not valid
+	 */
+	public static StreamingCipher hillCipher(int[][] key) {
+		if (!CipherEncrypter.validateHillKey(key)) {
+			return null;
+		}
+		return new Hill(CipherEncrypter.hillKey(key), key.length);
+	}
+
+	/**
+	 * Encrypts all chars of in and writes them to out, chunk by chunk
+	 *
+	 * @return number of chars written
+	 */
+	public long transform(Reader in, Writer out) throws IOException {
+		char[] input = new char[CHUNK_SIZE];
+		char[] output = new char[CHUNK_SIZE + maxPending()];
+		long total = 0;
+		int read;
+		while ((read = in.read(input, 0, input.length)) != -1) {
+			int written = update(input, 0, read, output, 0);
+			out.write(output, 0, written);
+			total += written;
+		}
+		finish();
+		out.flush();
+		return total;
+	}
+
+	/**
+	 * Encrypts all bytes of in and writes them to out, chunk by chunk
+	 *
+	 * @return number of bytes written
+	 */
+	public long transform(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ByteBuffer inputBytes = ByteBuffer.allocate(CHUNK_SIZE);
+		ByteBuffer outputBytes = ByteBuffer.allocate(CHUNK_SIZE + maxPending());
+		char[] input = new char[CHUNK_SIZE];
+		char[] output = new char[CHUNK_SIZE + maxPending()];
+		long total = 0;
+		while (in.read(inputBytes) != -1) {
+			inputBytes.flip();
+			total += transformChunk(inputBytes, out, input, output, outputBytes);
+			inputBytes.clear();
+		}
+		finish();
+		return total;
+	}
+
+	/**
+	 * Encrypts remaining bytes of in, for example MappedByteBuffer, and writes them to out, chunk by chunk
+	 *
+	 * @return number of bytes written
+	 */
+	public long transform(ByteBuffer in, WritableByteChannel out) throws IOException {
+		long total = transformBuffer(in, out);
+		finish();
+		return total;
+	}
+
+	/**
+	 * Encrypts file input into file output, input is mapped in windows of MAPPED_WINDOW_SIZE
+	 *
+	 * @return number of bytes written
+	 */
+	public long transform(Path input, Path output) throws IOException {
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+			 FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			long size = in.size();
+			long total = 0;
+			for (long position = 0; position < size; position += MAPPED_WINDOW_SIZE) {
+				MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_WINDOW_SIZE, size - position));
+				total += transformBuffer(window, out);
+			}
+			finish();
+			return total;
+		}
+	}
+
+	private long transformBuffer(ByteBuffer in, WritableByteChannel out) throws IOException {
+		ByteBuffer outputBytes = ByteBuffer.allocate(CHUNK_SIZE + maxPending());
+		char[] input = new char[CHUNK_SIZE];
+		char[] output = new char[CHUNK_SIZE + maxPending()];
+		long total = 0;
+		while (in.hasRemaining()) {
+			total += transformChunk(in, out, input, output, outputBytes);
+		}
+		return total;
+	}
+
+	/*
+	helper for byte transforms, encrypts at most CHUNK_SIZE bytes of in
+	 */
+	private int transformChunk(ByteBuffer in, WritableByteChannel out, char[] input, char[] output, ByteBuffer outputBytes) throws IOException {
+		int length = Math.min(in.remaining(), input.length);
+		for (int i = 0; i < length; i++) {
+			input[i] = (char) (in.get() & 0xFF);
+		}
+		int written = update(input, 0, length, output, 0);
+		outputBytes.clear();
+		for (int i = 0; i < written; i++) {
+			outputBytes.put((byte) output[i]);
+		}
+		outputBytes.flip();
+		while (outputBytes.hasRemaining()) {
+			out.write(outputBytes);
+		}
+		return written;
+	}
+
+	/*
+	every update delegates to range method of CipherEncrypter, so both use one rule for each cipher
+	 */
+	private static class Shift extends StreamingCipher {
+		private final int key;
+
+		Shift(int key) {
+			this.key = key;
+		}
+
+		@Override
+		public int update(char[] input, int offset, int length, char[] output, int outputOffset) {
+			return CipherEncrypter.shiftCipher(key, input, offset, length, output, outputOffset);
+		}
+	}
+
+	private static class Substitution extends StreamingCipher {
+		private final char[] lowerCase;
+		// null if only lower case letters are substituted
+		private final char[] upperCase;
+
+		Substitution(char[] lowerCase, char[] upperCase) {
+			this.lowerCase = lowerCase;
+			this.upperCase = upperCase;
+		}
+
+		@Override
+		public int update(char[] input, int offset, int length, char[] output, int outputOffset) {
+			if (upperCase == null) {
+				return CipherEncrypter.substitutionCipher(lowerCase, input, offset, length, output, outputOffset);
+			}
+			return CipherEncrypter.substitutionCipher(lowerCase, upperCase, input, offset, length, output, outputOffset);
+		}
+	}
+
+	private static class Affine extends StreamingCipher {
+		private final int a;
+		private final int b;
+
+		Affine(int a, int b) {
+			this.a = a;
+			this.b = b;
+		}
+
+		@Override
+		public int update(char[] input, int offset, int length, char[] output, int outputOffset) {
+			return CipherEncrypter.affineCipher(a, b, input, offset, length, output, outputOffset);
+		}
+	}
+
+	/*
+	key position of next chunk is number of chars before it, symbols dropped by vigenereCipher still use key position
+	 */
+	private static class Vigenere extends StreamingCipher {
+		private final String key;
+		private int position;
+
+		Vigenere(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public int update(char[] input, int offset, int length, char[] output, int outputOffset) {
+			int written = CipherEncrypter.vigenereCipher(key, position, input, offset, length, output, outputOffset);
+			position = (int) ((position + (long) length) % key.length());
+			return written;
+		}
+	}
+
+	/*
+	letters of unfinished block are kept in pending until next chunk, whole blocks are encrypted from input into output
+	chunk is checked before any state changes, so instance stays usable after chunk with invalid char was rejected
+	 */
+	private static class Hill extends StreamingCipher {
+		private final int[] matrix;
+		private final char[] pending;
+		private int filled;
+
+		Hill(int[] matrix, int n) {
+			this.matrix = matrix;
+			this.pending = new char[n];
+		}
+
+		@Override
+		public int maxPending() {
+			return pending.length - 1;
+		}
+
+		@Override
+		public int update(char[] input, int offset, int length, char[] output, int outputOffset) {
+			for (int k = offset; k < offset + length; k++) {
+				char currentChar = input[k];
+				if ((currentChar < LOWER_A || currentChar > LOWER_Z) && (currentChar < CAPITAL_A || currentChar > CAPITAL_Z)) {
+					throw new IllegalArgumentException("Invalid character");
+				}
+			}
+			int written = 0;
+			int i = 0;
+			while (filled > 0 && i < length) {
+				pending[filled++] = input[offset + i++];
+				if (filled == pending.length) {
+					written += CipherEncrypter.hillCipher(matrix, pending, 0, pending.length, output, outputOffset + written);
+					filled = 0;
+				}
+			}
+			int whole = (length - i) / pending.length * pending.length;
+			written += CipherEncrypter.hillCipher(matrix, input, offset + i, whole, output, outputOffset + written);
+			for (i += whole; i < length; i++) {
+				pending[filled++] = input[offset + i];
+			}
+			return written;
+		}
+
+		@Override
+		public void finish() {
+			if (filled != 0) {
+				throw new IllegalStateException("Length of text is not multiple of key size");
+			}
+		}
+	}
+}
@@ -0,0 +1,278 @@
+import java.util.SplittableRandom;
+
+/*
+linear and differential cryptanalysis of substitution permutation network from AdvancedCipherEncrypter
+tables of s-box show best approximations and characteristics, attacks recover bits of last round key:
+every candidate value of key nibbles after active s-boxes of last round decrypts these s-boxes of every
+ciphertext, right candidate makes approximation hold with largest bias or characteristic occur most often
+plaintexts are drawn from SplittableRandom seeded per chunk of CHUNK_SIZE pairs and encrypted with packed
+engine of at most 64 bits, chunks run on common ForkJoin pool with own counters which are added at the end
+blocks and masks are numbers in form of PackedSubstitutionPermutationNetwork.encrypt(long),
+first bit of block is highest bit (blockLength - 1)
+ */
+public class SubstitutionPermutationNetworkAnalyzer {
+	public static final int CHUNK_SIZE = 1 << 16;
+
+	// most active s-boxes of last round, linear attack checks 16^k candidates against 2 * 16^k counts
+	public static final int MAX_ACTIVE_NIBBLES = 3;
+
+	private static final int NIBBLE_VALUES = 16;
+
+	/**
+	 * Linear approximation table, entry [a][b] is number of x with parity(a &amp; x) = parity(b &amp; S(x)), minus 8
+	 * so entry / 16 is bias of approximation with input mask a and output mask b
+	 *
+	 * @param substitutionBoxIn s-box of 16 values in range 0..15
+	 * @return table of 16 x 16, null if s-box is not valid
+	 */
+	public static int[][] linearApproximationTable(int[] substitutionBoxIn) {
+		if (!validateSubstitutionBox(substitutionBoxIn)) {
+			return null;
+		}
+		int[][] table = new int[NIBBLE_VALUES][NIBBLE_VALUES];
+		for (int a = 0; a < NIBBLE_VALUES; a++) {
+			for (int b = 0; b < NIBBLE_VALUES; b++) {
+				int count = -NIBBLE_VALUES / 2;
+				for (int x = 0; x < NIBBLE_VALUES; x++) {
+					if (Integer.bitCount(a & x) % 2 == Integer.bitCount(b & substitutionBoxIn[x]) % 2) {
+						count++;
+					}
+				}
+				table[a][b] = count;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Difference distribution table, entry [dx][dy] is number of x with S(x) xor S(x xor dx) = dy
+	 * so entry / 16 is probability of difference dy after s-box for difference dx before it
+	 *
+	 * @param substitutionBoxIn s-box of 16 values in range 0..15
+	 * @return table of 16 x 16, null if s-box is not valid
+	 */
+	public static int[][] differenceDistributionTable(int[] substitutionBoxIn) {
+		if (!validateSubstitutionBox(substitutionBoxIn)) {
+			return null;
+		}
+		int[][] table = new int[NIBBLE_VALUES][NIBBLE_VALUES];
+		for (int dx = 0; dx < NIBBLE_VALUES; dx++) {
+			for (int x = 0; x < NIBBLE_VALUES; x++) {
+				table[dx][substitutionBoxIn[x] ^ substitutionBoxIn[x ^ dx]]++;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Linear attack with known plaintexts, approximation parity(inputMask &amp; P) = parity(outputMask &amp; U)
+	 * where U is input of last s-box layer, nibbles of U with bits in outputMask are active s-boxes
+	 * ciphertexts are distilled into counts of (parity of plaintext, bits of active nibbles),
+	 * so every candidate is checked once against 2 * 16^k counts instead of every pair
+	 *
+	 * @param network    engine with key under attack, block of at most 64 bits
+	 * @param inputMask  plaintext bits of approximation
+	 * @param outputMask bits of input of last s-box layer, in at most MAX_ACTIVE_NIBBLES nibbles
+	 * @param pairs      number of plaintexts
+	 * @param seed       seed of plaintexts
+	 * @return counts[candidate] = pairs for which approximation holds, candidate is key bits of active nibbles
+	 * of last round key, highest nibble first, null if masks are not valid
+	 */
+	public static long[] linearAttack(PackedSubstitutionPermutationNetwork network, long inputMask, long outputMask, long pairs, long seed) {
+		int[] shifts = activeNibbles(network, outputMask);
+		if (shifts == null || (inputMask & ~blockMask(network)) != 0) {
+			return null;
+		}
+		int[] inverse = inverse(network.getSubstitutionBox());
+		int bits = 4 * shifts.length;
+		int candidates = 1 << bits;
+		int maskBits = gather(outputMask, shifts);
+		// parity of outputMask bits of U, for every candidate xor ciphertext bits of active nibbles
+		boolean[] parity = new boolean[candidates];
+		for (int value = 0; value < candidates; value++) {
+			parity[value] = Integer.bitCount(substitute(value, inverse, shifts.length) & maskBits) % 2 == 1;
+		}
+		long block = blockMask(network);
+		long[] distilled = count(2 * candidates, pairs, seed, (random, length, counts) -> {
+			for (long i = 0; i < length; i++) {
+				long plaintext = random.nextLong() & block;
+				long ciphertext = network.encrypt(plaintext);
+				int plaintextParity = Long.bitCount(plaintext & inputMask) & 1;
+				counts[(plaintextParity << bits) | gather(ciphertext, shifts)]++;
+			}
+		});
+		long[] result = new long[candidates];
+		for (int candidate = 0; candidate < candidates; candidate++) {
+			for (int value = 0; value < candidates; value++) {
+				result[candidate] += distilled[((parity[value ^ candidate] ? 1 : 0) << bits) | value];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Differential attack with chosen plaintext pairs P, P xor inputDifference
+	 * pairs whose ciphertext difference is not zero outside active nibbles can not follow characteristic
+	 * and are dropped, for every other pair each candidate decrypts active nibbles of both ciphertexts
+	 *
+	 * @param network          engine with key under attack, block of at most 64 bits
+	 * @param inputDifference  plaintext difference of characteristic
+	 * @param outputDifference expected difference of input of last s-box layer, in at most MAX_ACTIVE_NIBBLES nibbles
+	 * @param pairs            number of plaintext pairs
+	 * @param seed             seed of plaintexts
+	 * @return counts[candidate] = pairs which have outputDifference after decryption with candidate,
+	 * candidate is key bits of active nibbles of last round key, highest nibble first, null if differences are not valid
+	 */
+	public static long[] differentialAttack(PackedSubstitutionPermutationNetwork network, long inputDifference, long outputDifference, long pairs, long seed) {
+		int[] shifts = activeNibbles(network, outputDifference);
+		if (shifts == null || (inputDifference & ~blockMask(network)) != 0) {
+			return null;
+		}
+		int[] inverse = inverse(network.getSubstitutionBox());
+		int candidates = 1 << (4 * shifts.length);
+		int expected = gather(outputDifference, shifts);
+		long block = blockMask(network);
+		long inactive = block;
+		for (int shift : shifts) {
+			inactive &= ~(15L << shift);
+		}
+		long filter = inactive;
+		return count(candidates, pairs, seed, (random, length, counts) -> {
+			for (long i = 0; i < length; i++) {
+				long plaintext = random.nextLong() & block;
+				long first = network.encrypt(plaintext);
+				long second = network.encrypt(plaintext ^ inputDifference);
+				if (((first ^ second) & filter) != 0) {
+					continue;
+				}
+				int firstBits = gather(first, shifts);
+				int secondBits = gather(second, shifts);
+				for (int candidate = 0; candidate < candidates; candidate++) {
+					int difference = substitute(firstBits ^ candidate, inverse, shifts.length)
+							^ substitute(secondBits ^ candidate, inverse, shifts.length);
+					if (difference == expected) {
+						counts[candidate]++;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * @param counts result of linearAttack
+	 * @param pairs  number of plaintexts given to linearAttack
+	 * @return candidate with largest absolute bias
+	 */
+	public static int bestLinearCandidate(long[] counts, long pairs) {
+		int best = 0;
+		for (int candidate = 1; candidate < counts.length; candidate++) {
+			if (Math.abs(2 * counts[candidate] - pairs) > Math.abs(2 * counts[best] - pairs)) {
+				best = candidate;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param counts result of differentialAttack
+	 * @return candidate with largest count
+	 */
+	public static int bestDifferentialCandidate(long[] counts) {
+		int best = 0;
+		for (int candidate = 1; candidate < counts.length; candidate++) {
+			if (counts[candidate] > counts[best]) {
+				best = candidate;
+			}
+		}
+		return best;
+	}
+
+	/*
+	shifts of nibbles which have bits in mask, highest nibble first, null if mask is 0, has bits out of block
+	or touches more than MAX_ACTIVE_NIBBLES nibbles, or block is longer than 64 bits
+	 */
+	private static int[] activeNibbles(PackedSubstitutionPermutationNetwork network, long mask) {
+		int blockLength = network.getBlockLength();
+		if (blockLength > 64 || mask == 0 || (mask & ~blockMask(network)) != 0) {
+			return null;
+		}
+		int count = 0;
+		int[] shifts = new int[MAX_ACTIVE_NIBBLES];
+		for (int shift = blockLength - 4; shift >= 0; shift -= 4) {
+			if (((mask >>> shift) & 15) != 0) {
+				if (count == shifts.length) {
+					return null;
+				}
+				shifts[count++] = shift;
+			}
+		}
+		int[] result = new int[count];
+		System.arraycopy(shifts, 0, result, 0, count);
+		return result;
+	}
+
+	private static long blockMask(PackedSubstitutionPermutationNetwork network) {
+		int blockLength = network.getBlockLength();
+		return blockLength >= 64 ? -1L : (1L << blockLength) - 1;
+	}
+
+	/*
+	nibbles of block at shifts joined into one number, first shift gives highest nibble
+	 */
+	private static int gather(long block, int[] shifts) {
+		int result = 0;
+		for (int shift : shifts) {
+			result = (result << 4) | (int) ((block >>> shift) & 15);
+		}
+		return result;
+	}
+
+	/*
+	box applied to every one of count nibbles of value
+	 */
+	private static int substitute(int value, int[] box, int count) {
+		int result = 0;
+		for (int shift = 4 * (count - 1); shift >= 0; shift -= 4) {
+			result = (result << 4) | box[(value >>> shift) & 15];
+		}
+		return result;
+	}
+
+	private static int[] inverse(int[] substitutionBoxIn) {
+		int[] inverse = new int[NIBBLE_VALUES];
+		for (int x = 0; x < NIBBLE_VALUES; x++) {
+			inverse[substitutionBoxIn[x]] = x;
+		}
+		return inverse;
+	}
+
+	private static boolean validateSubstitutionBox(int[] substitutionBoxIn) {
+		if (substitutionBoxIn == null || substitutionBoxIn.length != NIBBLE_VALUES) {
+			return false;
+		}
+		for (int value : substitutionBoxIn) {
+			if (value < 0 || value >= NIBBLE_VALUES) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	processes length pairs of one chunk, adds its results into counts of this chunk
+	 */
+	private interface PairCounter {
+		void count(SplittableRandom random, long length, long[] counts);
+	}
+
+	private static long[] count(int size, long pairs, long seed, PairCounter counter) {
+		long chunks = (pairs + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		// every chunk has own generator, so result does not depend on order of chunks
+		return ChunkCounts.sum(size, chunks, (chunk, result) ->
+				counter.count(new SplittableRandom(seed + chunk * 0x9E3779B97F4A7C15L), Math.min(CHUNK_SIZE, pairs - chunk * CHUNK_SIZE), result));
+	}
+
+	private SubstitutionPermutationNetworkAnalyzer() {
+		throw new IllegalStateException("Utility class");
+	}
+}
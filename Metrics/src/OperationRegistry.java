@@ -0,0 +1,44 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+statistics of named operations, RsaMetrics and CipherMetrics keep one registry each
+statistics of operation are created on its first call, every method can be called while operations run
+ */
+public class OperationRegistry {
+	private final Map<String, OperationStatistics> operations = new ConcurrentHashMap<>();
+
+	/**
+	 * @param operation name of instrumented method
+	 * @return statistics of operation, null if it was never recorded
+	 */
+	public OperationStatistics statistics(String operation) {
+		return operations.get(operation);
+	}
+
+	/**
+	 * @return statistics of every recorded operation, sorted by name
+	 */
+	public Map<String, OperationStatistics> operations() {
+		return new TreeMap<>(operations);
+	}
+
+	/**
+	 * Forgets statistics of every operation
+	 */
+	public void reset() {
+		operations.clear();
+	}
+
+	/**
+	 * Adds one call of operation
+	 */
+	public void record(String operation, long nanos, long size) {
+		OperationStatistics statistics = operations.get(operation);
+		if (statistics == null) {
+			statistics = operations.computeIfAbsent(operation, name -> new OperationStatistics());
+		}
+		statistics.record(nanos, size);
+	}
+}
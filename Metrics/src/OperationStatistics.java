@@ -0,0 +1,110 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one operation, used by RsaMetrics and CipherMetrics,
+ * every method can be called while operation runs
+ * histogram is log-linear like HdrHistogram: values below 64 ns have own bucket, every larger power of two
+ * is split into 32 buckets, so percentiles are within about 3% of exact value
+ */
+public class OperationStatistics {
+	private static final int SUB_BITS = 5;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder inputSize = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Adds one call
+	 *
+	 * @param nanos latency of call
+	 * @param size  input size of call
+	 */
+	public void record(long nanos, long size) {
+		count.increment();
+		totalNanos.add(nanos);
+		inputSize.add(size);
+		maxNanos.accumulate(nanos);
+		buckets.incrementAndGet(bucket(Math.max(nanos, 0)));
+	}
+
+	public long count() {
+		return count.sum();
+	}
+
+	public long totalNanos() {
+		return totalNanos.sum();
+	}
+
+	/**
+	 * @return sum of input sizes of every call
+	 */
+	public long inputSize() {
+		return inputSize.sum();
+	}
+
+	public long maxNanos() {
+		return maxNanos.get();
+	}
+
+	public long meanNanos() {
+		long calls = count();
+		return calls == 0 ? 0 : totalNanos() / calls;
+	}
+
+	/**
+	 * @param percentile in range 0..100
+	 * @return latency which percentile of calls did not exceed, 0 if there were no calls
+	 */
+	public long percentileNanos(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(highestValue(i), maxNanos());
+			}
+		}
+		return maxNanos();
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count() + " mean=" + meanNanos() + "ns p50=" + percentileNanos(50)
+				+ "ns p99=" + percentileNanos(99) + "ns max=" + maxNanos() + "ns input=" + inputSize();
+	}
+
+	/*
+	bucket of value, magnitude is how many low bits are dropped so that SUB_BITS + 1 bits remain
+	 */
+	private static int bucket(long value) {
+		int magnitude = 63 - Long.numberOfLeadingZeros(value | SUB_COUNT) - SUB_BITS;
+		return (magnitude << SUB_BITS) + (int) (value >>> magnitude);
+	}
+
+	/*
+	largest value which falls into bucket
+	 */
+	private static long highestValue(int bucket) {
+		if (bucket < 2 * SUB_COUNT) {
+			return bucket;
+		}
+		int magnitude = (bucket >>> SUB_BITS) - 1;
+		long lowest = (long) (bucket - (magnitude << SUB_BITS)) << magnitude;
+		return lowest + (1L << magnitude) - 1;
+	}
+}
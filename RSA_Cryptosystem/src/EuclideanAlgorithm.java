@@ -1,6 +1,14 @@
 import java.math.BigInteger;
 
+/*
+gcd of primitive types is Stein's binary algorithm, extended algorithms are iterative
+so no method uses recursion and extended ones allocate only their result
+ */
 public class EuclideanAlgorithm {
+	// bits of leading part used in Lehmer's algorithm, sums of leading part and cosequence never overflow long
+	private static final int LEHMER_BITS = 62;
+	private static final long DIGIT_MASK = 0xFFFFFFFFL;
+
 	/**
 	 * Computes the greatest common divisor of two positive integers.
 	 * Since the Euclidean algorithm computes greatest common divisors,
@@ -13,24 +21,18 @@ public class EuclideanAlgorithm {
 	 * @return greatest common divisor, if invalid input -1 will be returned
 	 */
 	public static int euclideanAlgorithm(int first, int second) {
-		if (second == 0) {
-			return first;
-		}
-		return euclideanAlgorithm(second, first % second);
+		return (int) binaryGcd(Math.abs((long) first), Math.abs((long) second));
 	}
 
 	public static long euclideanAlgorithm(long first, long second) {
-		if (second == 0) {
-			return first;
-		}
-		return euclideanAlgorithm(second, first % second);
+		return binaryGcd(Math.abs(first), Math.abs(second));
 	}
 
 	public static BigInteger euclideanAlgorithm(BigInteger first, BigInteger second) {
-		if (second.compareTo(BigInteger.ZERO) == 0) {
+		if (second.signum() == 0) {
 			return first;
 		}
-		return euclideanAlgorithm(second, first.mod(second));
+		return first.gcd(second);
 	}
 
 	/**
@@ -43,19 +45,99 @@ public class EuclideanAlgorithm {
 	 * x = first * y + second * z
 	 */
 	public static int[] extendedEuclideanAlgorithm(int first, int second) {
-		if (second == 0) {
-			return new int[]{first, 1, 0};
+		long[] result = extendedEuclideanAlgorithm((long) first, second);
+		return new int[]{(int) result[0], (int) result[1], (int) result[2]};
+	}
+
+	public static long[] extendedEuclideanAlgorithm(long first, long second) {
+		// invariant: first * y + second * z = x for both (x, y, z) and (nextX, nextY, nextZ)
+		long x = first;
+		long y = 1;
+		long z = 0;
+		long nextX = second;
+		long nextY = 0;
+		long nextZ = 1;
+		while (nextX != 0) {
+			long quotient = x / nextX;
+			long temp = x - quotient * nextX;
+			x = nextX;
+			nextX = temp;
+			temp = y - quotient * nextY;
+			y = nextY;
+			nextY = temp;
+			temp = z - quotient * nextZ;
+			z = nextZ;
+			nextZ = temp;
 		}
-		int[] result = extendedEuclideanAlgorithm(second, first % second);
-		return new int[]{result[0], result[2], result[1] - (first / second) * result[2]};
+		return new long[]{x, y, z};
 	}
 
+	/*
+	Lehmer's algorithm: quotients of leading 62 bits are same as quotients of whole numbers as long as
+	both bounds of Knuth's test agree, so many steps are done on long and applied to BigInteger at once
+	only y is tracked, z is found from x = first * y + second * z at the end
+	 */
 	public static BigInteger[] extendedEuclideanAlgorithm(BigInteger first, BigInteger second) {
-		if (second.compareTo(BigInteger.ZERO) == 0) {
+		if (second.signum() == 0) {
 			return new BigInteger[]{first, BigInteger.ONE, BigInteger.ZERO};
 		}
-		BigInteger[] result = extendedEuclideanAlgorithm(second, first.mod(second));
-		return new BigInteger[]{result[0], result[2], result[1].add(first.divide(second).multiply(result[2]).negate())};
+		// first step by hand, so rest of algorithm works only with non-negative numbers
+		BigInteger u = second;
+		BigInteger v = first.mod(second);
+		BigInteger uY = BigInteger.ZERO;
+		BigInteger vY = BigInteger.ONE;
+		while (v.signum() != 0) {
+			int shift = u.bitLength() - LEHMER_BITS;
+			if (shift <= 0) {
+				BigInteger[] division = u.divideAndRemainder(v);
+				BigInteger temp = uY.subtract(division[0].multiply(vY));
+				u = v;
+				v = division[1];
+				uY = vY;
+				vY = temp;
+				continue;
+			}
+			long uHigh = u.shiftRight(shift).longValue();
+			long vHigh = v.shiftRight(shift).longValue();
+			// cosequence matrix, (u, v) becomes (a * u + b * v, c * u + d * v)
+			long a = 1;
+			long b = 0;
+			long c = 0;
+			long d = 1;
+			while (vHigh + c != 0 && vHigh + d != 0) {
+				long quotient = (uHigh + a) / (vHigh + c);
+				if (quotient != (uHigh + b) / (vHigh + d)) {
+					break;
+				}
+				long temp = a - quotient * c;
+				a = c;
+				c = temp;
+				temp = b - quotient * d;
+				b = d;
+				d = temp;
+				temp = uHigh - quotient * vHigh;
+				uHigh = vHigh;
+				vHigh = temp;
+			}
+			if (b == 0) {
+				// no quotient fitted in long, one step with whole numbers
+				BigInteger[] division = u.divideAndRemainder(v);
+				BigInteger temp = uY.subtract(division[0].multiply(vY));
+				u = v;
+				v = division[1];
+				uY = vY;
+				vY = temp;
+			} else {
+				BigInteger nextU = combine(a, u, b, v);
+				v = combine(c, u, d, v);
+				u = nextU;
+				BigInteger nextUY = combine(a, uY, b, vY);
+				vY = combine(c, uY, d, vY);
+				uY = nextUY;
+			}
+		}
+		BigInteger z = u.subtract(first.multiply(uY)).divide(second);
+		return new BigInteger[]{u, uY, z};
 	}
 
 	/**
@@ -77,6 +159,100 @@ public class EuclideanAlgorithm {
 		return mod(temp[1], second);
 	}
 
+	/**
+	 * Inverts every value mod modulus with Montgomery's trick, see batchInverse
+	 *
+	 * @param values  numbers to invert
+	 * @param modulus modulus greater than 1
+	 * @return inverses in range 0..modulus-1, null if modulus is not greater than 1 or some value is not invertible
+	 */
+	public static BigInteger[] multiplicativeInverse(BigInteger[] values, BigInteger modulus) {
+		BigInteger[] inverses = new BigInteger[values.length];
+		return BigInteger.ONE.equals(batchInverse(values, modulus, inverses)) ? inverses : null;
+	}
+
+	public static long[] multiplicativeInverse(long[] values, long modulus) {
+		long[] inverses = new long[values.length];
+		return batchInverse(values, modulus, inverses) == 1 ? inverses : null;
+	}
+
+	/**
+	 * Inverts every value mod modulus with Montgomery's trick:
+	 * inverse of product of all values is found by one extended Euclid, inverses of single values
+	 * are peeled off it with prefix products, so n inverses take about 3n multiplications
+	 *
+	 * @param values   numbers to invert
+	 * @param modulus  modulus greater than 1
+	 * @param inverses destination of values.length inverses in range 0..modulus-1, can be values
+	 * @return 1 if every value was inverted, else gcd(values[i], modulus) &gt; 1 of first value which is not invertible
+	 * and inverses are not valid, this is factor of modulus or modulus itself, null if modulus is not greater than 1
+	 */
+	public static BigInteger batchInverse(BigInteger[] values, BigInteger modulus, BigInteger[] inverses) {
+		if (modulus.compareTo(BigInteger.ONE) <= 0) {
+			return null;
+		}
+		int length = values.length;
+		if (length == 0) {
+			return BigInteger.ONE;
+		}
+		// inverses[i] = product of values[0..i] until backward pass, last element is not stored
+		BigInteger[] reduced = values == inverses ? values.clone() : values;
+		BigInteger product = reduced[0].mod(modulus);
+		for (int i = 1; i < length; i++) {
+			inverses[i - 1] = product;
+			product = product.multiply(reduced[i]).mod(modulus);
+		}
+		BigInteger[] extended = extendedEuclideanAlgorithm(product, modulus);
+		if (!extended[0].equals(BigInteger.ONE)) {
+			return firstCommonFactor(reduced, modulus);
+		}
+		BigInteger inverse = mod(extended[1], modulus);
+		for (int i = length - 1; i > 0; i--) {
+			inverses[i] = inverse.multiply(inverses[i - 1]).mod(modulus);
+			inverse = inverse.multiply(reduced[i]).mod(modulus);
+		}
+		inverses[0] = inverse;
+		return BigInteger.ONE;
+	}
+
+	/**
+	 * Same as batchInverse for BigInteger
+	 *
+	 * @return 1 if every value was inverted, else gcd(values[i], modulus) &gt; 1 of first value which is not invertible,
+	 * -1 if modulus is not greater than 1
+	 */
+	public static long batchInverse(long[] values, long modulus, long[] inverses) {
+		if (modulus <= 1) {
+			return -1;
+		}
+		int length = values.length;
+		if (length == 0) {
+			return 1;
+		}
+		long[] reduced = values == inverses ? values.clone() : values;
+		long product = mod(reduced[0], modulus);
+		for (int i = 1; i < length; i++) {
+			inverses[i - 1] = product;
+			product = multiplyMod(product, mod(reduced[i], modulus), modulus);
+		}
+		long[] extended = extendedEuclideanAlgorithm(product, modulus);
+		if (extended[0] != 1) {
+			for (long value : reduced) {
+				long gcd = euclideanAlgorithm(mod(value, modulus), modulus);
+				if (gcd != 1) {
+					return gcd;
+				}
+			}
+		}
+		long inverse = mod(extended[1], modulus);
+		for (int i = length - 1; i > 0; i--) {
+			inverses[i] = multiplyMod(inverse, inverses[i - 1], modulus);
+			inverse = multiplyMod(inverse, mod(reduced[i], modulus), modulus);
+		}
+		inverses[0] = inverse;
+		return 1;
+	}
+
 	public static int mod(int first, int second) {
 		int result = first % second;
 		if (result < 0) {
@@ -93,11 +269,97 @@ public class EuclideanAlgorithm {
 		return result;
 	}
 
+	/*
+	BigInteger.mod is never negative, unlike % of primitive types
+	 */
 	public static BigInteger mod(BigInteger first, BigInteger second) {
-		BigInteger result = first.mod(second);
-		if (result.compareTo(BigInteger.ZERO) == -1) {
-			result = result.add(second);
+		return first.mod(second);
+	}
+
+	/*
+	Stein's binary gcd of a and b taken as unsigned, so abs of Long.MIN_VALUE works too
+	 */
+	private static long binaryGcd(long a, long b) {
+		if (a == 0) {
+			return b;
 		}
-		return result;
+		if (b == 0) {
+			return a;
+		}
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>>= Long.numberOfTrailingZeros(a);
+		do {
+			b >>>= Long.numberOfTrailingZeros(b);
+			if (Long.compareUnsigned(a, b) > 0) {
+				long temp = a;
+				a = b;
+				b = temp;
+			}
+			b -= a;
+		} while (b != 0);
+		return a << shift;
+	}
+
+	/*
+	gcd of first value which has common factor with modulus, every value is checked only when product has one
+	 */
+	private static BigInteger firstCommonFactor(BigInteger[] values, BigInteger modulus) {
+		for (BigInteger value : values) {
+			BigInteger gcd = value.gcd(modulus);
+			if (!gcd.equals(BigInteger.ONE)) {
+				return gcd;
+			}
+		}
+		return modulus;
+	}
+
+	/*
+	a * b mod modulus for 0 <= a, b < modulus, product has 128 bits
+	 */
+	static long multiplyMod(long a, long b, long modulus) {
+		if ((a | b) >>> 31 == 0) {
+			return a * b % modulus;
+		}
+		return remainder(Math.multiplyHigh(a, b), a * b, modulus);
+	}
+
+	/*
+	(high * 2^64 + low) mod divisor for high < divisor, long division by two 32 bit digits
+	from Hacker's Delight, divisor is shifted so its top bit is set, then every digit of quotient
+	is estimated from top digit of divisor and corrected at most twice
+	 */
+	private static long remainder(long high, long low, long divisor) {
+		int shift = Long.numberOfLeadingZeros(divisor);
+		divisor <<= shift;
+		long divisorHigh = divisor >>> 32;
+		long divisorLow = divisor & DIGIT_MASK;
+		long top = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+		low <<= shift;
+		long rest = digitStep(top, low >>> 32, divisor, divisorHigh, divisorLow);
+		rest = digitStep(rest, low & DIGIT_MASK, divisor, divisorHigh, divisorLow);
+		return rest >>> shift;
+	}
+
+	/*
+	(top * 2^32 + digit) mod divisor for top < divisor
+	 */
+	private static long digitStep(long top, long digit, long divisor, long divisorHigh, long divisorLow) {
+		long quotient = Long.divideUnsigned(top, divisorHigh);
+		long remainder = top - quotient * divisorHigh;
+		while (quotient > DIGIT_MASK || Long.compareUnsigned(quotient * divisorLow, (remainder << 32) | digit) > 0) {
+			quotient--;
+			remainder += divisorHigh;
+			if (remainder > DIGIT_MASK) {
+				break;
+			}
+		}
+		return ((top << 32) | digit) - quotient * divisor;
+	}
+
+	/*
+	x * first + y * second, x and y are entries of Lehmer cosequence
+	 */
+	private static BigInteger combine(long x, BigInteger first, long y, BigInteger second) {
+		return first.multiply(BigInteger.valueOf(x)).add(second.multiply(BigInteger.valueOf(y)));
 	}
 }
@@ -1,13 +1,41 @@
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class FactoringAlgorithms {
+	private static final BigInteger TWO = BigInteger.valueOf(2);
+	private static final BigInteger THREE = BigInteger.valueOf(3);
+	private static final BigInteger FIVE = BigInteger.valueOf(5);
+	// prime powers multiplied into one exponent in stage 1 of pollard p-1
+	private static final int STAGE_ONE_BATCH = 256;
+	// primes multiplied into one gcd in stage 2 of pollard p-1
+	private static final int STAGE_TWO_BATCH = 1024;
+	// steps of brent rho multiplied into one gcd
+	private static final int RHO_BATCH = 100;
+	// pairs of starting value and constant tried by one worker of parallel rho
+	private static final int RHO_ATTEMPTS = 4;
+	// smallest sigma of Suyama's parametrization which gives valid curve, parallel ECM uses sigma = 6 + curve number
+	private static final long FIRST_SIGMA = 6;
+	// ECM stage 2 step D, largest which fits bounds is used, every D is product of first primes
+	private static final int[] ECM_STEPS = {2310, 210, 30, 6};
+	// ECM schedule, row {B1, curves} is expected to find factor of about 15, 20, 25, 30, 35 and 40 digits, B2 = 100 * B1
+	private static final long[][] ECM_SCHEDULE = {{2000, 30}, {11000, 100}, {50000, 350}, {250000, 800}, {1000000, 2000}, {3000000, 5500}};
 
 	public static boolean trivialPrimeValidator(long n) {
-		if (n % 2 == 0) {
+		if (n < 2) {
 			return false;
 		}
+		if (n % 2 == 0) {
+			return n == 2;
+		}
 		long p = 3;
-		while (p < Math.sqrt((double) n)) {
+		while (p <= n / p) {
 			if (n % p == 0) {
 				return false;
 			}
@@ -22,8 +50,7 @@ public class FactoringAlgorithms {
 		BigInteger j = new BigInteger("0");
 		while (j.compareTo(B) != 1) {
 			j = j.add(BigInteger.ONE);
-			a = power(a, j);
-			a = EuclideanAlgorithm.mod(a, n);
+			a = a.modPow(j, n);
 		}
 		BigInteger minusOne = new BigInteger("-1");
 		BigInteger temp = a.add(minusOne);
@@ -34,14 +61,150 @@ public class FactoringAlgorithms {
 		return null;//failure
 	}
 
-	private static BigInteger power(BigInteger first, BigInteger second) {
-		BigInteger result = new BigInteger("1");
-		BigInteger i = new BigInteger("0");
-		while (i.compareTo(second) == -1) {
-			result = result.multiply(first);
-			i = i.add(BigInteger.ONE);
+	public static BigInteger pollardFactoringAlgorithm(BigInteger n, long B1, long B2) {
+		return pollardFactoringAlgorithm(n, B1, B2, null);
+	}
+
+	/**
+	 * Pollard p-1 algorithm with two stages
+	 * stage 1 finds factor p if every prime power of p-1 is at most B1,
+	 * stage 2 also allows p-1 to have one more prime in range (B1, B2]
+	 * exponent is built from prime powers up to B1 instead of B!, gcd is taken once per batch of primes
+	 *
+	 * @param n        number to factor
+	 * @param B1       bound of stage 1
+	 * @param B2       bound of stage 2, no stage 2 if B2 <= B1
+	 * @param progress called after every batch, may be null
+	 * @return non trivial factor of n, or null if factor was not found
+	 * @throws CancellationException if progress returned false or thread was interrupted
+	 */
+	public static BigInteger pollardFactoringAlgorithm(BigInteger n, long B1, long B2, FactoringProgress progress) {
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		try {
+			return pollardFirstStage(n, B1, B2, progress);
+		} finally {
+			RsaMetrics.stop(event, "pollardFactoringAlgorithm", n.bitLength(), 0, null);
+		}
+	}
+
+	/*
+	stage 1 of pollard p-1, continues with stage 2 if no factor was found
+	 */
+	private static BigInteger pollardFirstStage(BigInteger n, long B1, long B2, FactoringProgress progress) {
+		if (!n.testBit(0)) {
+			return n.compareTo(TWO) > 0 ? TWO : null;
+		}
+		long[] powers = new long[STAGE_ONE_BATCH];
+		BigInteger a = TWO;
+		PrimeSieve sieve = new PrimeSieve(2, B1);
+		long prime = sieve.nextPrime();
+		while (prime != -1) {
+			int count = 0;
+			long last = prime;
+			BigInteger exponent = BigInteger.ONE;
+			while (prime != -1 && count < powers.length) {
+				long power = prime;
+				while (power <= B1 / prime) {
+					power *= prime;
+				}
+				powers[count++] = power;
+				exponent = exponent.multiply(BigInteger.valueOf(power));
+				last = prime;
+				prime = sieve.nextPrime();
+			}
+			BigInteger next = a.modPow(exponent, n);
+			BigInteger d = next.subtract(BigInteger.ONE).gcd(n);
+			if (d.equals(n)) {
+				// every factor appeared in same batch, repeat it one prime power at a time
+				for (int i = 0; i < count; i++) {
+					a = a.modPow(BigInteger.valueOf(powers[i]), n);
+					d = a.subtract(BigInteger.ONE).gcd(n);
+					if (d.compareTo(BigInteger.ONE) > 0) {
+						return d.equals(n) ? null : d;
+					}
+				}
+			} else if (d.compareTo(BigInteger.ONE) > 0) {
+				return d;
+			}
+			a = next;
+			checkProgress(progress, 1, last, B1);
+		}
+		if (B2 <= B1) {
+			return null;
+		}
+		return pollardSecondStage(n, a, B1, B2, progress);
+	}
+
+	/*
+	stage 2 of pollard p-1, a = 2^E mod n after stage 1
+	for every prime q in (B1, B2] multiplies (a^q - 1) into accumulator, a^q is found from previous one
+	by multiplying with a^gap, where powers for gaps between primes are computed once with modPow
+	every step runs in Montgomery form of n, only gcd leaves it
+	 */
+	private static BigInteger pollardSecondStage(BigInteger n, BigInteger a, long B1, long B2, FactoringProgress progress) {
+		PrimeSieve sieve = new PrimeSieve(B1 + 1, B2);
+		long prime = sieve.nextPrime();
+		if (prime == -1) {
+			return null;
+		}
+		ModContext context = new ModContext(n);
+		int[] one = context.newElement();
+		context.one(one);
+		int[][] gapPowers = new int[64][];
+		int[][] values = new int[STAGE_TWO_BATCH][];
+		int[] b = context.toMontgomery(a.modPow(BigInteger.valueOf(prime), n));
+		int[] accumulator = context.newElement();
+		int[] scratch = context.newElement();
+		while (prime != -1) {
+			int count = 0;
+			long last = prime;
+			context.one(accumulator);
+			while (prime != -1 && count < values.length) {
+				if (values[count] == null) {
+					values[count] = context.newElement();
+				}
+				int[] value = values[count++];
+				context.subtract(b, one, value);
+				context.multiply(accumulator, value, scratch);
+				int[] temp = accumulator;
+				accumulator = scratch;
+				scratch = temp;
+				last = prime;
+				prime = sieve.nextPrime();
+				if (prime != -1) {
+					int gap = (int) ((prime - last) / 2);
+					if (gap >= gapPowers.length) {
+						gapPowers = Arrays.copyOf(gapPowers, Math.max(gap + 1, gapPowers.length * 2));
+					}
+					if (gapPowers[gap] == null) {
+						gapPowers[gap] = context.toMontgomery(a.modPow(BigInteger.valueOf(prime - last), n));
+					}
+					context.multiply(b, gapPowers[gap], scratch);
+					temp = b;
+					b = scratch;
+					scratch = temp;
+				}
+			}
+			BigInteger d = context.fromMontgomery(accumulator).gcd(n);
+			if (d.equals(n)) {
+				for (int i = 0; i < count; i++) {
+					d = context.fromMontgomery(values[i]).gcd(n);
+					if (d.compareTo(BigInteger.ONE) > 0) {
+						return d.equals(n) ? null : d;
+					}
+				}
+			} else if (d.compareTo(BigInteger.ONE) > 0) {
+				return d;
+			}
+			checkProgress(progress, 2, last, B2);
+		}
+		return null;
+	}
+
+	private static void checkProgress(FactoringProgress progress, int stage, long value, long bound) {
+		if (Thread.currentThread().isInterrupted() || (progress != null && !progress.progress(stage, value, bound))) {
+			throw new CancellationException("Factoring was cancelled");
 		}
-		return result;
 	}
 
 	//The Pollard Rho factoring algorithm
@@ -72,4 +235,538 @@ public class FactoringAlgorithms {
 	private static BigInteger externalFunction(BigInteger x) {
 		return x.pow(2).add(BigInteger.ONE);
 	}
+
+	/**
+	 * Pollard rho with Brent cycle detection and f(x) = x^2 + c mod n
+	 * |x - y| of about RHO_BATCH steps are multiplied together and checked with one gcd,
+	 * if that gcd is n, steps of last batch are repeated one at a time
+	 * steps run in Montgomery form of n, gcd of x * R and n is same as gcd of x and n
+	 *
+	 * @param n  number to factor
+	 * @param x1 starting value
+	 * @param c  constant of polynomial, should not be 0 or -2
+	 * @return non trivial factor of n, or null if this x1 and c failed
+	 * @throws CancellationException if thread was interrupted
+	 */
+	public static BigInteger pollardRhoBrentFactoringAlgorithm(BigInteger n, BigInteger x1, BigInteger c) {
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		try {
+			return brent(n, x1, c);
+		} finally {
+			RsaMetrics.stop(event, "pollardRhoBrentFactoringAlgorithm", n.bitLength(), 0, null);
+		}
+	}
+
+	private static BigInteger brent(BigInteger n, BigInteger x1, BigInteger c) {
+		if (!n.testBit(0)) {
+			return n.compareTo(TWO) > 0 ? TWO : null;
+		}
+		ModContext context = new ModContext(n);
+		int[] constant = context.toMontgomery(c);
+		int[] y = context.toMontgomery(x1);
+		int[] x = context.newElement();
+		int[] ys = context.newElement();
+		int[] q = context.newElement();
+		int[] difference = context.newElement();
+		int[] square = context.newElement();
+		int[] product = context.newElement();
+		context.one(q);
+		BigInteger g = BigInteger.ONE;
+		long r = 1;
+		while (g.equals(BigInteger.ONE)) {
+			System.arraycopy(y, 0, x, 0, x.length);
+			for (long i = 0; i < r; i++) {
+				rhoStep(context, y, constant, square);
+			}
+			long k = 0;
+			while (k < r && g.equals(BigInteger.ONE)) {
+				System.arraycopy(y, 0, ys, 0, ys.length);
+				long steps = Math.min(RHO_BATCH, r - k);
+				for (long i = 0; i < steps; i++) {
+					rhoStep(context, y, constant, square);
+					context.subtract(x, y, difference);
+					context.multiply(q, difference, product);
+					int[] temp = q;
+					q = product;
+					product = temp;
+				}
+				g = context.fromMontgomery(q).gcd(n);
+				k += steps;
+				checkProgress(null, 1, k, r);
+			}
+			r *= 2;
+		}
+		if (g.equals(n)) {
+			// product of batch became 0 mod n, find first step of batch with common factor
+			do {
+				rhoStep(context, ys, constant, square);
+				context.subtract(x, ys, difference);
+				g = context.fromMontgomery(difference).gcd(n);
+			} while (g.equals(BigInteger.ONE));
+		}
+		return g.equals(n) ? null : g;
+	}
+
+	/*
+	y = y^2 + c, square is scratch element
+	 */
+	private static void rhoStep(ModContext context, int[] y, int[] c, int[] square) {
+		context.square(y, square);
+		context.add(square, c, y);
+	}
+
+	public static BigInteger parallelPollardRhoFactoringAlgorithm(BigInteger n) {
+		return parallelPollardRhoFactoringAlgorithm(n, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Runs pollardRhoBrentFactoringAlgorithm with different x1 and c on workers threads,
+	 * first worker which finds factor cancels the rest
+	 *
+	 * @param n       number to factor
+	 * @param workers number of threads, every worker tries RHO_ATTEMPTS pairs of x1 and c
+	 * @return non trivial factor of n, or null if n is prime or every worker failed
+	 */
+	public static BigInteger parallelPollardRhoFactoringAlgorithm(BigInteger n, int workers) {
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		try {
+			return parallelRho(n, workers);
+		} finally {
+			RsaMetrics.stop(event, "parallelPollardRhoFactoringAlgorithm", n.bitLength(), 0, null);
+		}
+	}
+
+	private static BigInteger parallelRho(BigInteger n, int workers) {
+		if (!n.testBit(0)) {
+			return n.compareTo(TWO) > 0 ? TWO : null;
+		}
+		// on prime every worker would run all its attempts before giving up
+		if (PrimalityTest.isProbablePrime(n)) {
+			return null;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			List<Callable<BigInteger>> tasks = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				int worker = i;
+				tasks.add(() -> {
+					for (int attempt = 0; attempt < RHO_ATTEMPTS; attempt++) {
+						long seed = (long) attempt * workers + worker;
+						BigInteger factor = pollardRhoBrentFactoringAlgorithm(n, BigInteger.valueOf(seed + 2), BigInteger.valueOf(seed + 1));
+						if (factor != null) {
+							return factor;
+						}
+					}
+					throw new IllegalStateException("Factor was not found");
+				});
+			}
+			return executor.invokeAny(tasks);
+		} catch (ExecutionException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Factoring was cancelled");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Lenstra's elliptic curve method with one curve, curve is Montgomery curve By^2 = x^3 + Ax^2 + x
+	 * from Suyama's parametrization, points are kept as projective (X : Z) in Montgomery form of n,
+	 * so no step needs inverse, only curve setup and gcd do
+	 * stage 1 finds factor p if every prime power of order of curve mod p is at most B1,
+	 * stage 2 also allows order to have one more prime in range (B1, B2]
+	 *
+	 * @param n        odd composite number which is not prime power
+	 * @param sigma    chooses curve, at least 6, every sigma gives different curve
+	 * @param B1       bound of stage 1, at least 3
+	 * @param B2       bound of stage 2, no stage 2 if B2 <= B1
+	 * @param progress called after every batch, may be null
+	 * @return non trivial factor of n, or null if this curve failed
+	 * @throws CancellationException if progress returned false or thread was interrupted
+	 */
+	public static BigInteger ellipticCurveFactoringAlgorithm(BigInteger n, long sigma, long B1, long B2, FactoringProgress progress) {
+		if (sigma < FIRST_SIGMA) {
+			throw new IllegalArgumentException("Invalid sigma");
+		}
+		if (B1 < 3) {
+			throw new IllegalArgumentException("Invalid B1");
+		}
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		try {
+			return ellipticCurve(n, sigma, B1, B2, progress);
+		} finally {
+			RsaMetrics.stop(event, "ellipticCurveFactoringAlgorithm", n.bitLength(), 0, null);
+		}
+	}
+
+	public static BigInteger parallelEllipticCurveFactoringAlgorithm(BigInteger n) {
+		return parallelEllipticCurveFactoringAlgorithm(n, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Elliptic curve method with bounds which grow by ECM_SCHEDULE, so small factors are found first
+	 * every row runs its curves on workers threads, curves are different in every row
+	 *
+	 * @param n       number to factor
+	 * @param workers number of threads
+	 * @return non trivial factor of n, or null if n is prime or every row of schedule failed
+	 */
+	public static BigInteger parallelEllipticCurveFactoringAlgorithm(BigInteger n, int workers) {
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		try {
+			if (!n.testBit(0)) {
+				return n.compareTo(TWO) > 0 ? TWO : null;
+			}
+			if (PrimalityTest.isProbablePrime(n)) {
+				return null;
+			}
+			long firstCurve = 0;
+			for (long[] row : ECM_SCHEDULE) {
+				BigInteger factor = parallelEllipticCurve(n, firstCurve, row[0], 100 * row[0], (int) row[1], workers);
+				if (factor != null) {
+					return factor;
+				}
+				firstCurve += row[1];
+			}
+			return null;
+		} finally {
+			RsaMetrics.stop(event, "parallelEllipticCurveFactoringAlgorithm", n.bitLength(), 0, null);
+		}
+	}
+
+	/**
+	 * Runs ellipticCurveFactoringAlgorithm with given number of curves on workers threads,
+	 * first worker which finds factor cancels the rest
+	 *
+	 * @param n       number to factor
+	 * @param B1      bound of stage 1, at least 3
+	 * @param B2      bound of stage 2
+	 * @param curves  number of curves, sigma of curve i is 6 + i
+	 * @param workers number of threads
+	 * @return non trivial factor of n, or null if every curve failed
+	 */
+	public static BigInteger parallelEllipticCurveFactoringAlgorithm(BigInteger n, long B1, long B2, int curves, int workers) {
+		if (B1 < 3) {
+			throw new IllegalArgumentException("Invalid B1");
+		}
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		try {
+			if (!n.testBit(0)) {
+				return n.compareTo(TWO) > 0 ? TWO : null;
+			}
+			return parallelEllipticCurve(n, 0, B1, B2, curves, workers);
+		} finally {
+			RsaMetrics.stop(event, "parallelEllipticCurveFactoringAlgorithm", n.bitLength(), 0, null);
+		}
+	}
+
+	/*
+	worker w runs curves firstCurve + w, firstCurve + w + workers, ...
+	 */
+	private static BigInteger parallelEllipticCurve(BigInteger n, long firstCurve, long B1, long B2, int curves, int workers) {
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			List<Callable<BigInteger>> tasks = new ArrayList<>();
+			for (int i = 0; i < Math.min(workers, curves); i++) {
+				int worker = i;
+				tasks.add(() -> {
+					for (int curve = worker; curve < curves; curve += workers) {
+						BigInteger factor = ellipticCurve(n, FIRST_SIGMA + firstCurve + curve, B1, B2, null);
+						if (factor != null) {
+							return factor;
+						}
+					}
+					throw new IllegalStateException("Factor was not found");
+				});
+			}
+			return tasks.isEmpty() ? null : executor.invokeAny(tasks);
+		} catch (ExecutionException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Factoring was cancelled");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static BigInteger ellipticCurve(BigInteger n, long sigma, long B1, long B2, FactoringProgress progress) {
+		if (!n.testBit(0)) {
+			return n.compareTo(TWO) > 0 ? TWO : null;
+		}
+		// Suyama: u = sigma^2 - 5, v = 4 sigma, start point (u^3 : v^3), (A + 2) / 4 = (v - u)^3 (3u + v) / (16 u^3 v)
+		BigInteger s = BigInteger.valueOf(sigma);
+		BigInteger u = s.multiply(s).subtract(FIVE).mod(n);
+		BigInteger v = s.shiftLeft(2).mod(n);
+		BigInteger x = u.pow(3).mod(n);
+		BigInteger numerator = v.subtract(u).pow(3).multiply(u.multiply(THREE).add(v)).mod(n);
+		BigInteger[] extended = EuclideanAlgorithm.extendedEuclideanAlgorithm(x.multiply(v).shiftLeft(4).mod(n), n);
+		if (!extended[0].equals(BigInteger.ONE)) {
+			// denominator shares factor with n, which is lucky unless it is n itself
+			return extended[0].equals(n) ? null : extended[0];
+		}
+		BigInteger a24 = numerator.multiply(EuclideanAlgorithm.mod(extended[1], n)).mod(n);
+		MontgomeryCurve curve = new MontgomeryCurve(new ModContext(n), a24);
+		MontgomeryCurve.Point point = curve.point(x, v.pow(3));
+		BigInteger d = ellipticFirstStage(curve, point, B1, progress);
+		if (d == null && B2 > B1) {
+			d = ellipticSecondStage(curve, point, B1, B2, progress);
+		}
+		return d == null || d.equals(n) ? null : d;
+	}
+
+	/*
+	stage 1 of ECM, point becomes product of point and every prime power up to B1
+	returns gcd(Z, n) when it is greater than 1, null if it stayed 1
+	when order mod every factor became smooth in same batch gcd is n, then batch is repeated
+	from point saved at its start one prime power at a time, as in pollardFirstStage
+	 */
+	private static BigInteger ellipticFirstStage(MontgomeryCurve curve, MontgomeryCurve.Point point, long B1, FactoringProgress progress) {
+		PrimeSieve sieve = new PrimeSieve(2, B1);
+		long[] powers = new long[STAGE_ONE_BATCH];
+		MontgomeryCurve.Point saved = curve.copy(point);
+		long prime = sieve.nextPrime();
+		while (prime != -1) {
+			int count = 0;
+			long last = prime;
+			curve.set(point, saved);
+			while (prime != -1 && count < powers.length) {
+				long power = prime;
+				while (power <= B1 / prime) {
+					power *= prime;
+				}
+				powers[count++] = power;
+				curve.multiply(point, power);
+				last = prime;
+				prime = sieve.nextPrime();
+			}
+			BigInteger d = curve.gcd(point.z);
+			if (d.equals(curve.context.getModulus())) {
+				curve.set(saved, point);
+				for (int i = 0; i < count; i++) {
+					curve.multiply(point, powers[i]);
+					d = curve.gcd(point.z);
+					if (!d.equals(BigInteger.ONE)) {
+						return d;
+					}
+				}
+			} else if (!d.equals(BigInteger.ONE)) {
+				return d;
+			}
+			checkProgress(progress, 1, last, B1);
+		}
+		return null;
+	}
+
+	/*
+	stage 2 of ECM, Q is point after stage 1, every prime q in (B1, B2] is written as q = mD +- j with j < D / 2
+	qQ is infinity mod p exactly when mDQ and jQ have same x mod p, which is tested by X(mDQ) Z(jQ) - X(jQ) Z(mDQ),
+	so one test covers both mD - j and mD + j
+	jQ for odd j is computed once, mDQ steps from previous two by one addition
+	 */
+	private static BigInteger ellipticSecondStage(MontgomeryCurve curve, MontgomeryCurve.Point point, long B1, long B2, FactoringProgress progress) {
+		PrimeSieve sieve = new PrimeSieve(B1 + 1, B2);
+		long prime = sieve.nextPrime();
+		if (prime == -1) {
+			return null;
+		}
+		int step = ECM_STEPS[ECM_STEPS.length - 1];
+		for (int candidate : ECM_STEPS) {
+			if (candidate / 2 <= B1 && (double) candidate * candidate <= 2.0 * (B2 - B1)) {
+				step = candidate;
+				break;
+			}
+		}
+		int half = step / 2;
+		// multiples[j] = jQ for odd j < D / 2, (j + 2)Q = jQ + 2Q with difference (j - 2)Q, x of -Q is x of Q
+		MontgomeryCurve.Point[] multiples = new MontgomeryCurve.Point[half];
+		MontgomeryCurve.Point twice = curve.copy(point);
+		curve.doubling(twice, twice);
+		multiples[1] = curve.copy(point);
+		for (int j = 3; j < half; j += 2) {
+			multiples[j] = curve.copy(point);
+			curve.addition(multiples[j - 2], twice, j == 3 ? point : multiples[j - 4], multiples[j]);
+		}
+		MontgomeryCurve.Point giant = curve.copy(point);
+		curve.multiply(giant, step);
+		long m = Math.max(1, (B1 + 1 + half) / step);
+		MontgomeryCurve.Point current = curve.copy(giant);
+		curve.multiply(current, m);
+		MontgomeryCurve.Point next = curve.copy(giant);
+		curve.multiply(next, m + 1);
+		ModContext context = curve.context;
+		int[] accumulator = context.newElement();
+		int[][] values = new int[STAGE_TWO_BATCH][];
+		int[] second = context.newElement();
+		int[] scratch = context.newElement();
+		while (prime != -1) {
+			int count = 0;
+			long last = prime;
+			context.one(accumulator);
+			while (prime != -1 && count < values.length) {
+				long target = (prime + half) / step;
+				while (m < target) {
+					// (m + 2)DQ = (m + 1)DQ + DQ with difference mDQ, oldest point is reused for result
+					curve.addition(next, giant, current, current);
+					MontgomeryCurve.Point temp = current;
+					current = next;
+					next = temp;
+					m++;
+				}
+				MontgomeryCurve.Point multiple = multiples[(int) Math.abs(prime - m * step)];
+				if (values[count] == null) {
+					values[count] = context.newElement();
+				}
+				int[] value = values[count++];
+				context.multiply(current.x, multiple.z, value);
+				context.multiply(multiple.x, current.z, second);
+				context.subtract(value, second, value);
+				context.multiply(accumulator, value, scratch);
+				int[] temp = accumulator;
+				accumulator = scratch;
+				scratch = temp;
+				last = prime;
+				prime = sieve.nextPrime();
+			}
+			BigInteger d = curve.gcd(accumulator);
+			if (d.equals(context.getModulus())) {
+				// every factor appeared in same batch, terms of batch are kept, so each is tried alone
+				for (int i = 0; i < count; i++) {
+					d = curve.gcd(values[i]);
+					if (!d.equals(BigInteger.ONE)) {
+						return d;
+					}
+				}
+			} else if (!d.equals(BigInteger.ONE)) {
+				return d;
+			}
+			checkProgress(progress, 2, last, B2);
+		}
+		return null;
+	}
+
+	/*
+	Montgomery curve By^2 = x^3 + Ax^2 + x mod n, only x is kept as (X : Z), a24 = (A + 2) / 4
+	every element is in Montgomery form of n, scratch elements make instance usable by one thread only
+	 */
+	private static class MontgomeryCurve {
+		private final ModContext context;
+		private final int[] a24;
+		private final int[][] scratch = new int[4][];
+		private final Point first;
+		private final Point second;
+
+		MontgomeryCurve(ModContext context, BigInteger a24) {
+			this.context = context;
+			this.a24 = context.toMontgomery(a24);
+			for (int i = 0; i < scratch.length; i++) {
+				scratch[i] = context.newElement();
+			}
+			first = new Point(context.newElement(), context.newElement());
+			second = new Point(context.newElement(), context.newElement());
+		}
+
+		Point point(BigInteger x, BigInteger z) {
+			return new Point(context.toMontgomery(x), context.toMontgomery(z));
+		}
+
+		Point copy(Point point) {
+			return new Point(point.x.clone(), point.z.clone());
+		}
+
+		/*
+		result = point without allocation
+		 */
+		void set(Point point, Point result) {
+			System.arraycopy(point.x, 0, result.x, 0, point.x.length);
+			System.arraycopy(point.z, 0, result.z, 0, point.z.length);
+		}
+
+		/*
+		result = 2 * point, result can be point
+		X2 = (X + Z)^2 (X - Z)^2, Z2 = 4XZ ((X - Z)^2 + a24 * 4XZ) where 4XZ = (X + Z)^2 - (X - Z)^2
+		 */
+		void doubling(Point point, Point result) {
+			int[] t1 = scratch[0];
+			int[] t2 = scratch[1];
+			int[] t3 = scratch[2];
+			int[] t4 = scratch[3];
+			context.add(point.x, point.z, t1);
+			context.square(t1, t2);
+			context.subtract(point.x, point.z, t1);
+			context.square(t1, t3);
+			context.multiply(t2, t3, result.x);
+			context.subtract(t2, t3, t1);
+			context.multiply(a24, t1, t4);
+			context.add(t4, t3, t4);
+			context.multiply(t1, t4, result.z);
+		}
+
+		/*
+		result = p + q where difference = p - q, result can be any of them
+		X = Zd ((Xp - Zp)(Xq + Zq) + (Xp + Zp)(Xq - Zq))^2, Z = Xd ((Xp - Zp)(Xq + Zq) - (Xp + Zp)(Xq - Zq))^2
+		 */
+		void addition(Point p, Point q, Point difference, Point result) {
+			int[] t1 = scratch[0];
+			int[] t2 = scratch[1];
+			int[] t3 = scratch[2];
+			int[] t4 = scratch[3];
+			context.subtract(p.x, p.z, t1);
+			context.add(q.x, q.z, t2);
+			context.multiply(t1, t2, t3);
+			context.add(p.x, p.z, t1);
+			context.subtract(q.x, q.z, t2);
+			context.multiply(t1, t2, t4);
+			context.add(t3, t4, t1);
+			context.square(t1, t2);
+			context.subtract(t3, t4, t1);
+			context.square(t1, t3);
+			context.multiply(difference.z, t2, t1);
+			context.multiply(difference.x, t3, t2);
+			System.arraycopy(t1, 0, result.x, 0, t1.length);
+			System.arraycopy(t2, 0, result.z, 0, t2.length);
+		}
+
+		/*
+		point = k * point for k >= 1, Montgomery ladder keeps first = i * point and second = (i + 1) * point
+		 */
+		void multiply(Point point, long k) {
+			if (k == 1) {
+				return;
+			}
+			System.arraycopy(point.x, 0, first.x, 0, point.x.length);
+			System.arraycopy(point.z, 0, first.z, 0, point.z.length);
+			doubling(point, second);
+			for (int bit = 62 - Long.numberOfLeadingZeros(k); bit >= 0; bit--) {
+				if ((k >>> bit & 1) != 0) {
+					addition(first, second, point, first);
+					doubling(second, second);
+				} else {
+					addition(first, second, point, second);
+					doubling(first, first);
+				}
+			}
+			System.arraycopy(first.x, 0, point.x, 0, point.x.length);
+			System.arraycopy(first.z, 0, point.z, 0, point.z.length);
+		}
+
+		/*
+		gcd of value and n, Montgomery form does not change it because R is coprime with n
+		 */
+		BigInteger gcd(int[] value) {
+			return EuclideanAlgorithm.euclideanAlgorithm(context.fromMontgomery(value), context.getModulus());
+		}
+
+		private static class Point {
+			private final int[] x;
+			private final int[] z;
+
+			Point(int[] x, int[] z) {
+				this.x = x;
+				this.z = z;
+			}
+		}
+	}
 }
@@ -0,0 +1,13 @@
+/*
+callback of long running factoring algorithms
+it is called after every batch of work, returning false cancels factoring
+ */
+public interface FactoringProgress {
+	/**
+	 * @param stage stage of algorithm, starting from 1
+	 * @param value how far stage got, for example last processed prime
+	 * @param bound value where stage ends
+	 * @return true to continue, false to cancel
+	 */
+	boolean progress(int stage, long value, long bound);
+}
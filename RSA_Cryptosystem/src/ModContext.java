@@ -0,0 +1,233 @@
+import java.math.BigInteger;
+
+/*
+arithmetic mod fixed odd modulus n in Montgomery form, x is stored as x * R mod n with R = 2^(32 * length)
+numbers are little endian int[] of length limbs, every operation writes into array given by caller,
+so multiply, square, add and subtract allocate nothing
+meant for long loops of single steps such as rho and p-1 stage 2, where BigInteger would allocate every step,
+whole exponentiations are faster with BigInteger.modPow, which JIT runs with intrinsics
+arrays may be longer than length, only first length limbs are used
+context is immutable and can be shared between threads, arrays cannot
+ */
+public class ModContext {
+	private static final long MASK = 0xFFFFFFFFL;
+
+	private final BigInteger modulus;
+	private final int length;
+	private final int[] n;
+	// -n^(-1) mod 2^32
+	private final int inverse;
+	// R mod n, which is 1 in Montgomery form
+	private final int[] one;
+	// R^2 mod n, multiplying by it converts to Montgomery form
+	private final int[] rSquare;
+
+	/**
+	 * @param modulus odd number greater than 1
+	 */
+	public ModContext(BigInteger modulus) {
+		if (modulus.compareTo(BigInteger.ONE) <= 0 || !modulus.testBit(0)) {
+			throw new IllegalArgumentException("Invalid modulus");
+		}
+		this.modulus = modulus;
+		length = (modulus.bitLength() + 31) / 32;
+		n = limbs(modulus);
+		// Newton iteration for n^(-1) mod 2^32, every step doubles number of correct bits
+		int x = n[0];
+		for (int i = 0; i < 4; i++) {
+			x *= 2 - n[0] * x;
+		}
+		inverse = -x;
+		BigInteger r = BigInteger.ONE.shiftLeft(32 * length);
+		one = limbs(r.mod(modulus));
+		rSquare = limbs(r.multiply(r).mod(modulus));
+	}
+
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * @return number of limbs of every element
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * @return new element, value is 0
+	 */
+	public int[] newElement() {
+		return new int[length];
+	}
+
+	/**
+	 * @param x any integer, is reduced mod n first
+	 * @return x in Montgomery form
+	 */
+	public int[] toMontgomery(BigInteger x) {
+		int[] result = newElement();
+		toMontgomery(x, result);
+		return result;
+	}
+
+	public void toMontgomery(BigInteger x, int[] result) {
+		multiply(limbs(x.mod(modulus)), rSquare, result);
+	}
+
+	/**
+	 * @param a element in Montgomery form
+	 * @return its value in range 0..n-1
+	 */
+	public BigInteger fromMontgomery(int[] a) {
+		int[] unit = new int[length];
+		unit[0] = 1;
+		int[] value = new int[length];
+		multiply(a, unit, value);
+		byte[] bytes = new byte[4 * length];
+		for (int i = 0; i < length; i++) {
+			int limb = value[length - 1 - i];
+			bytes[4 * i] = (byte) (limb >>> 24);
+			bytes[4 * i + 1] = (byte) (limb >>> 16);
+			bytes[4 * i + 2] = (byte) (limb >>> 8);
+			bytes[4 * i + 3] = (byte) limb;
+		}
+		return new BigInteger(1, bytes);
+	}
+
+	/**
+	 * result = 1 in Montgomery form
+	 */
+	public void one(int[] result) {
+		System.arraycopy(one, 0, result, 0, length);
+	}
+
+	/**
+	 * result = a * b mod n, CIOS (coarsely integrated operand scanning) Montgomery multiplication
+	 *
+	 * @param result must not be same array as a or b
+	 */
+	public void multiply(int[] a, int[] b, int[] result) {
+		int s = length;
+		int[] n = this.n;
+		long inverse = this.inverse & MASK;
+		for (int j = 0; j < s; j++) {
+			result[j] = 0;
+		}
+		// limbs s and s + 1 of accumulator
+		long high = 0;
+		long higher;
+		for (int i = 0; i < s; i++) {
+			long bi = b[i] & MASK;
+			long carry = 0;
+			for (int j = 0; j < s; j++) {
+				long sum = (result[j] & MASK) + (a[j] & MASK) * bi + carry;
+				result[j] = (int) sum;
+				carry = sum >>> 32;
+			}
+			long sum = high + carry;
+			high = sum & MASK;
+			higher = sum >>> 32;
+			// adding m * n makes lowest limb zero, accumulator is shifted by one limb
+			long m = ((result[0] & MASK) * inverse) & MASK;
+			carry = ((result[0] & MASK) + m * (n[0] & MASK)) >>> 32;
+			for (int j = 1; j < s; j++) {
+				sum = (result[j] & MASK) + m * (n[j] & MASK) + carry;
+				result[j - 1] = (int) sum;
+				carry = sum >>> 32;
+			}
+			sum = high + carry;
+			result[s - 1] = (int) sum;
+			high = higher + (sum >>> 32);
+		}
+		if (high != 0 || compareToModulus(result) >= 0) {
+			subtractModulus(result);
+		}
+	}
+
+	/**
+	 * result = a^2 mod n
+	 *
+	 * @param result must not be same array as a
+	 */
+	public void square(int[] a, int[] result) {
+		multiply(a, a, result);
+	}
+
+	/**
+	 * result = a + b mod n, result can be same array as a or b
+	 */
+	public void add(int[] a, int[] b, int[] result) {
+		long carry = 0;
+		for (int j = 0; j < length; j++) {
+			long sum = (a[j] & MASK) + (b[j] & MASK) + carry;
+			result[j] = (int) sum;
+			carry = sum >>> 32;
+		}
+		if (carry != 0 || compareToModulus(result) >= 0) {
+			subtractModulus(result);
+		}
+	}
+
+	/**
+	 * result = a - b mod n, result can be same array as a or b
+	 */
+	public void subtract(int[] a, int[] b, int[] result) {
+		long borrow = 0;
+		for (int j = 0; j < length; j++) {
+			long difference = (a[j] & MASK) - (b[j] & MASK) - borrow;
+			result[j] = (int) difference;
+			borrow = difference >>> 63;
+		}
+		if (borrow != 0) {
+			long carry = 0;
+			for (int j = 0; j < length; j++) {
+				long sum = (result[j] & MASK) + (n[j] & MASK) + carry;
+				result[j] = (int) sum;
+				carry = sum >>> 32;
+			}
+		}
+	}
+
+	/**
+	 * @return true if a is 0 mod n
+	 */
+	public boolean isZero(int[] a) {
+		for (int j = 0; j < length; j++) {
+			if (a[j] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int compareToModulus(int[] a) {
+		for (int j = length - 1; j >= 0; j--) {
+			if (a[j] != n[j]) {
+				return Integer.compareUnsigned(a[j], n[j]);
+			}
+		}
+		return 0;
+	}
+
+	private void subtractModulus(int[] a) {
+		long borrow = 0;
+		for (int j = 0; j < length; j++) {
+			long difference = (a[j] & MASK) - (n[j] & MASK) - borrow;
+			a[j] = (int) difference;
+			borrow = difference >>> 63;
+		}
+	}
+
+	/*
+	x as length little endian limbs, 0 <= x < 2^(32 * length)
+	 */
+	private int[] limbs(BigInteger x) {
+		int[] result = new int[length];
+		byte[] bytes = x.toByteArray();
+		for (int i = 0; i < bytes.length && i < 4 * length; i++) {
+			result[i / 4] |= (bytes[bytes.length - 1 - i] & 0xFF) << (8 * (i % 4));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,293 @@
+import java.math.BigInteger;
+import java.util.stream.IntStream;
+
+/*
+primality tests, every test first does trial division by small primes
+long: deterministic Miller-Rabin, first 12 primes (up to 37) as witnesses are enough for every n < 3.18 * 10^23, so for every long
+BigInteger: Baillie-PSW, which is Miller-Rabin to base 2 and strong Lucas test, no composite is known to pass it
+ */
+public class PrimalityTest {
+	private static final int[] SMALL_PRIMES = smallPrimes();
+	private static final long[] WITNESSES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+	// products of consecutive small primes, each fits in long, for trial division of BigInteger with one mod per product
+	private static final long[] SMALL_PRIME_PRODUCTS = smallPrimeProducts();
+	private static final BigInteger TWO = BigInteger.valueOf(2);
+
+	/**
+	 * Deterministic primality test for long
+	 *
+	 * @param n number to test
+	 * @return true if n is prime
+	 */
+	public static boolean isPrime(long n) {
+		if (n < 2) {
+			return false;
+		}
+		for (int p : SMALL_PRIMES) {
+			if (n % p == 0) {
+				return n == p;
+			}
+		}
+		long last = SMALL_PRIMES[SMALL_PRIMES.length - 1];
+		if (n < last * last) {
+			return true;
+		}
+		return millerRabin(n);
+	}
+
+	/**
+	 * Baillie-PSW probable prime test
+	 *
+	 * @param n number to test
+	 * @return false if n is composite, true if n is prime or extremely rare pseudoprime (none is known)
+	 */
+	public static boolean isProbablePrime(BigInteger n) {
+		if (n.bitLength() < 63) {
+			return isPrime(n.longValue());
+		}
+		if (!n.testBit(0)) {
+			return false;
+		}
+		int k = 0;
+		for (long product : SMALL_PRIME_PRODUCTS) {
+			long remainder = n.mod(BigInteger.valueOf(product)).longValue();
+			while (k < SMALL_PRIMES.length && product % SMALL_PRIMES[k] == 0) {
+				if (remainder % SMALL_PRIMES[k] == 0) {
+					return false;
+				}
+				k++;
+			}
+		}
+		return strongProbablePrime(n, TWO) && strongLucasProbablePrime(n);
+	}
+
+	/**
+	 * Tests every candidate on common ForkJoin pool
+	 *
+	 * @return result[i] = isPrime(candidates[i])
+	 */
+	public static boolean[] isPrime(long[] candidates) {
+		boolean[] result = new boolean[candidates.length];
+		IntStream.range(0, candidates.length).parallel().forEach(i -> result[i] = isPrime(candidates[i]));
+		return result;
+	}
+
+	/**
+	 * Tests every candidate on common ForkJoin pool
+	 *
+	 * @return result[i] = isProbablePrime(candidates[i])
+	 */
+	public static boolean[] isProbablePrime(BigInteger[] candidates) {
+		boolean[] result = new boolean[candidates.length];
+		IntStream.range(0, candidates.length).parallel().forEach(i -> result[i] = isProbablePrime(candidates[i]));
+		return result;
+	}
+
+	/*
+	Miller-Rabin for odd n > 1000^2 with every witness, arithmetic in Montgomery form with R = 2^64
+	so products never overflow
+	 */
+	private static boolean millerRabin(long n) {
+		long inverse = inverseMod64(n);
+		long one = Long.remainderUnsigned(-n, n); // R mod n
+		long minusOne = n - one;
+		long square = one; // R^2 mod n, R doubled 64 times
+		for (int i = 0; i < 64; i++) {
+			square = square >= n - square ? square - (n - square) : square + square;
+		}
+		long d = n - 1;
+		int s = Long.numberOfTrailingZeros(d);
+		d >>>= s;
+		for (long witness : WITNESSES) {
+			long x = montgomeryPower(montgomeryMultiply(witness % n, square, n, inverse), d, one, n, inverse);
+			if (x == one || x == minusOne) {
+				continue;
+			}
+			boolean composite = true;
+			for (int r = 1; r < s; r++) {
+				x = montgomeryMultiply(x, x, n, inverse);
+				if (x == minusOne) {
+					composite = false;
+					break;
+				}
+			}
+			if (composite) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long montgomeryPower(long base, long exponent, long one, long n, long inverse) {
+		long result = one;
+		for (int i = 63 - Long.numberOfLeadingZeros(exponent); i >= 0; i--) {
+			result = montgomeryMultiply(result, result, n, inverse);
+			if (((exponent >>> i) & 1) == 1) {
+				result = montgomeryMultiply(result, base, n, inverse);
+			}
+		}
+		return result;
+	}
+
+	/*
+	a * b / 2^64 mod n for 0 <= a, b < n < 2^63, inverse = n^(-1) mod 2^64
+	m = low * inverse makes low word of a * b - m * n zero, so result is high word difference
+	 */
+	private static long montgomeryMultiply(long a, long b, long n, long inverse) {
+		long high = Math.multiplyHigh(a, b);
+		long m = a * b * inverse;
+		long mn = Math.multiplyHigh(m, n) + ((m >> 63) & n); // unsigned high word of m * n
+		long result = high - mn;
+		return result < 0 ? result + n : result;
+	}
+
+	/*
+	n^(-1) mod 2^64 for odd n by Newton iteration, every step doubles number of correct bits
+	 */
+	private static long inverseMod64(long n) {
+		long x = n; // correct to 3 bits
+		for (int i = 0; i < 5; i++) {
+			x *= 2 - n * x;
+		}
+		return x;
+	}
+
+	/*
+	Miller-Rabin to one base
+	 */
+	private static boolean strongProbablePrime(BigInteger n, BigInteger base) {
+		BigInteger minusOne = n.subtract(BigInteger.ONE);
+		int s = minusOne.getLowestSetBit();
+		BigInteger x = base.modPow(minusOne.shiftRight(s), n);
+		if (x.equals(BigInteger.ONE) || x.equals(minusOne)) {
+			return true;
+		}
+		for (int r = 1; r < s; r++) {
+			x = x.multiply(x).mod(n);
+			if (x.equals(minusOne)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	strong Lucas probable prime test with Selfridge parameters:
+	D is first of 5, -7, 9, -11, ... with Jacobi(D / n) = -1, P = 1, Q = (1 - D) / 4
+	n + 1 = d * 2^s, n passes if U(d) = 0 or V(d * 2^r) = 0 mod n for some 0 <= r < s
+	 */
+	private static boolean strongLucasProbablePrime(BigInteger n) {
+		BigInteger root = n.sqrt();
+		if (root.multiply(root).equals(n)) {
+			return false; // no D exists for perfect squares
+		}
+		long d = 5;
+		while (true) {
+			int jacobi = jacobi(BigInteger.valueOf(d), n);
+			if (jacobi == -1) {
+				break;
+			}
+			if (jacobi == 0 && BigInteger.valueOf(Math.abs(d)).compareTo(n) < 0) {
+				return false;
+			}
+			d = d > 0 ? -(d + 2) : -(d - 2);
+		}
+		BigInteger bigD = BigInteger.valueOf(d);
+		BigInteger q = BigInteger.valueOf((1 - d) / 4);
+		BigInteger exponent = n.add(BigInteger.ONE);
+		int s = exponent.getLowestSetBit();
+		exponent = exponent.shiftRight(s);
+		// U(1) = 1, V(1) = P = 1, Q^1
+		BigInteger u = BigInteger.ONE;
+		BigInteger v = BigInteger.ONE;
+		BigInteger qk = q.mod(n);
+		for (int i = exponent.bitLength() - 2; i >= 0; i--) {
+			// k -> 2k
+			u = u.multiply(v).mod(n);
+			v = v.multiply(v).subtract(qk.shiftLeft(1)).mod(n);
+			qk = qk.multiply(qk).mod(n);
+			if (exponent.testBit(i)) {
+				// 2k -> 2k + 1
+				BigInteger nextU = half(u.add(v), n);
+				v = half(bigD.multiply(u).add(v), n);
+				u = nextU;
+				qk = qk.multiply(q).mod(n);
+			}
+		}
+		if (u.signum() == 0 || v.signum() == 0) {
+			return true;
+		}
+		for (int r = 1; r < s; r++) {
+			v = v.multiply(v).subtract(qk.shiftLeft(1)).mod(n);
+			if (v.signum() == 0) {
+				return true;
+			}
+			qk = qk.multiply(qk).mod(n);
+		}
+		return false;
+	}
+
+	/*
+	x / 2 mod n for odd n
+	 */
+	private static BigInteger half(BigInteger x, BigInteger n) {
+		x = x.mod(n);
+		if (x.testBit(0)) {
+			x = x.add(n);
+		}
+		return x.shiftRight(1);
+	}
+
+	/*
+	Jacobi symbol (a / n) for odd positive n
+	 */
+	static int jacobi(BigInteger a, BigInteger n) {
+		a = a.mod(n);
+		int result = 1;
+		while (a.signum() != 0) {
+			int zeros = a.getLowestSetBit();
+			a = a.shiftRight(zeros);
+			int nMod8 = n.intValue() & 7;
+			if ((zeros & 1) == 1 && (nMod8 == 3 || nMod8 == 5)) {
+				result = -result;
+			}
+			BigInteger temp = a;
+			a = n;
+			n = temp;
+			if ((a.intValue() & 3) == 3 && (n.intValue() & 3) == 3) {
+				result = -result;
+			}
+			a = a.mod(n);
+		}
+		return n.equals(BigInteger.ONE) ? result : 0;
+	}
+
+	private static int[] smallPrimes() {
+		int[] odd = PrimeSieve.oddPrimes(1000);
+		int[] result = new int[odd.length + 1];
+		result[0] = 2;
+		System.arraycopy(odd, 0, result, 1, odd.length);
+		return result;
+	}
+
+	private static long[] smallPrimeProducts() {
+		long[] products = new long[SMALL_PRIMES.length];
+		int count = 0;
+		long product = 1;
+		for (int p : SMALL_PRIMES) {
+			if (product > Long.MAX_VALUE / p) {
+				products[count++] = product;
+				product = 1;
+			}
+			product *= p;
+		}
+		products[count++] = product;
+		long[] result = new long[count];
+		System.arraycopy(products, 0, result, 0, count);
+		return result;
+	}
+
+	private PrimalityTest() {
+		throw new IllegalStateException("Utility class");
+	}
+}
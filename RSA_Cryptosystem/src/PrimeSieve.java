@@ -0,0 +1,101 @@
+/*
+segmented sieve of Eratosthenes, gives primes of range [from, to] in increasing order
+only odd numbers are stored, memory is base primes up to sqrt(to) and one segment
+ */
+public class PrimeSieve {
+	// odd numbers in one segment
+	private static final int SEGMENT_SIZE = 1 << 15;
+
+	private final long to;
+	// odd primes up to sqrt(to)
+	private final int[] basePrimes;
+	// composite[i] is true if segmentStart + 2 * i is not prime
+	private final boolean[] composite = new boolean[SEGMENT_SIZE];
+	private long segmentStart;
+	private int segmentLength;
+	private int index;
+	private boolean two;
+
+	public PrimeSieve(long from, long to) {
+		this.to = to;
+		two = from <= 2 && to >= 2;
+		long start = Math.max(from, 3);
+		segmentStart = start % 2 == 0 ? start + 1 : start;
+		basePrimes = oddPrimes((int) Math.sqrt((double) to) + 1);
+	}
+
+	/**
+	 * @return next prime of range, -1 if there are no more primes
+	 */
+	public long nextPrime() {
+		if (two) {
+			two = false;
+			return 2;
+		}
+		while (true) {
+			while (index < segmentLength) {
+				if (!composite[index]) {
+					return segmentStart + 2L * index++;
+				}
+				index++;
+			}
+			segmentStart += 2L * segmentLength;
+			if (segmentStart > to) {
+				return -1;
+			}
+			sieveSegment();
+		}
+	}
+
+	private void sieveSegment() {
+		segmentLength = (int) Math.min(SEGMENT_SIZE, (to - segmentStart) / 2 + 1);
+		index = 0;
+		for (int i = 0; i < segmentLength; i++) {
+			composite[i] = false;
+		}
+		long segmentEnd = segmentStart + 2L * (segmentLength - 1);
+		for (int p : basePrimes) {
+			long square = (long) p * p;
+			if (square > segmentEnd) {
+				break;
+			}
+			long multiple = Math.max(square, (segmentStart + p - 1) / p * p);
+			if (multiple % 2 == 0) {
+				multiple += p;
+			}
+			for (long j = (multiple - segmentStart) / 2; j < segmentLength; j += p) {
+				composite[(int) j] = true;
+			}
+		}
+	}
+
+	/**
+	 * Simple sieve of Eratosthenes
+	 *
+	 * @param limit upper bound, inclusive
+	 * @return all odd primes up to limit
+	 */
+	public static int[] oddPrimes(int limit) {
+		if (limit < 3) {
+			return new int[0];
+		}
+		boolean[] composite = new boolean[limit + 1];
+		int count = 0;
+		for (int i = 3; i <= limit; i += 2) {
+			if (composite[i]) {
+				continue;
+			}
+			count++;
+			for (long j = (long) i * i; j <= limit; j += 2L * i) {
+				composite[(int) j] = true;
+			}
+		}
+		int[] result = new int[count];
+		for (int i = 3, k = 0; i <= limit; i += 2) {
+			if (!composite[i]) {
+				result[k++] = i;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,142 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+connection to RSA_Server on loopback address, see RSA_Server for protocol
+every call sends request at once and gives future of its response, so many requests can wait at same time
+calls can be made from any thread, responses are read by one daemon thread which completes futures
+ */
+public class RSA_Client implements Closeable {
+	private final Socket socket;
+	private final DataOutputStream out;
+	private final Map<Integer, CompletableFuture<byte[]>> pending = new ConcurrentHashMap<>();
+	private final AtomicInteger nextRequestId = new AtomicInteger();
+	private volatile boolean closed;
+
+	/**
+	 * @param port port of RSA_Server on loopback address
+	 */
+	public RSA_Client(int port) throws IOException {
+		socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		socket.setTcpNoDelay(true);
+		out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		Thread reader = new Thread(this::read, "RSA_Client reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * @param input plaintext, 0 <= input < n
+	 * @return future of ciphertext, fails with IllegalArgumentException if key is not known or input is not valid
+	 */
+	public CompletableFuture<BigInteger> encryption(int keyId, BigInteger input) {
+		return send(RSA_Server.ENCRYPTION, keyId, input.toByteArray()).thenApply(BigInteger::new);
+	}
+
+	/**
+	 * @param input ciphertext, 0 <= input < n
+	 * @return future of plaintext, fails with IllegalArgumentException if key is not known or input is not valid
+	 */
+	public CompletableFuture<BigInteger> decryption(int keyId, BigInteger input) {
+		return send(RSA_Server.DECRYPTION, keyId, input.toByteArray()).thenApply(BigInteger::new);
+	}
+
+	/**
+	 * @return future of {n, b}, fails with IllegalArgumentException if key is not known
+	 */
+	public CompletableFuture<BigInteger[]> publicKey(int keyId) {
+		return send(RSA_Server.PUBLIC_KEY, keyId, new byte[0]).thenApply(value -> {
+			int length = ByteBuffer.wrap(value).getInt();
+			BigInteger n = new BigInteger(Arrays.copyOfRange(value, 4, 4 + length));
+			BigInteger b = new BigInteger(Arrays.copyOfRange(value, 4 + length, value.length));
+			return new BigInteger[]{n, b};
+		});
+	}
+
+	/**
+	 * Closes connection, futures without response fail with IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		socket.close();
+		failPending();
+	}
+
+	private CompletableFuture<byte[]> send(byte operation, int keyId, byte[] value) {
+		CompletableFuture<byte[]> future = new CompletableFuture<>();
+		int requestId = nextRequestId.incrementAndGet();
+		pending.put(requestId, future);
+		try {
+			synchronized (out) {
+				out.writeInt(RSA_Server.REQUEST_HEADER_SIZE + value.length);
+				out.writeInt(requestId);
+				out.writeByte(operation);
+				out.writeInt(keyId);
+				out.write(value);
+				out.flush();
+			}
+		} catch (IOException e) {
+			pending.remove(requestId);
+			future.completeExceptionally(e);
+		}
+		// reader may have stopped before future was added
+		if (closed) {
+			failPending();
+		}
+		return future;
+	}
+
+	private void read() {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			while (true) {
+				int length = in.readInt();
+				int requestId = in.readInt();
+				byte status = in.readByte();
+				byte[] value = new byte[length - RSA_Server.RESPONSE_HEADER_SIZE];
+				in.readFully(value);
+				CompletableFuture<byte[]> future = pending.remove(requestId);
+				if (future == null) {
+					continue;
+				}
+				if (status == RSA_Server.OK) {
+					future.complete(value);
+				} else if (status == RSA_Server.UNKNOWN_KEY) {
+					future.completeExceptionally(new IllegalArgumentException("Unknown key"));
+				} else if (status == RSA_Server.INVALID_REQUEST) {
+					future.completeExceptionally(new IllegalArgumentException("Invalid request"));
+				} else {
+					future.completeExceptionally(new IllegalStateException("Server error"));
+				}
+			}
+		} catch (IOException e) {
+			// connection was closed
+		} finally {
+			closed = true;
+			failPending();
+		}
+	}
+
+	private void failPending() {
+		for (Integer requestId : pending.keySet()) {
+			CompletableFuture<byte[]> future = pending.remove(requestId);
+			if (future != null) {
+				future.completeExceptionally(new IOException("Connection closed"));
+			}
+		}
+	}
+}
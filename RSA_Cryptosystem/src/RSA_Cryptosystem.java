@@ -1,14 +1,31 @@
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
 
 public class RSA_Cryptosystem {
 	private BigInteger x;
-	private BigInteger b;
-	private BigInteger n;
-	private BigInteger m;
-	private BigInteger key;
+	// key material never changes after construction, final fields make instance safe to share between threads
+	private final BigInteger b;
+	private final BigInteger n;
+	private final BigInteger m;
+	private final BigInteger key;
+	// CRT form of the private key, decryption works mod p and mod q separately
+	private final BigInteger p;
+	private final BigInteger q;
+	private final BigInteger dP;
+	private final BigInteger dQ;
+	private final BigInteger qInv;
 	private final static BigInteger minusOne = new BigInteger("-1");
 
 	public RSA_Cryptosystem(BigInteger p, BigInteger q, BigInteger b) {
+		this(p, q, b, true);
+	}
+
+	/*
+	printKey is false for generated keys, so their private key never reaches standard output
+	 */
+	RSA_Cryptosystem(BigInteger p, BigInteger q, BigInteger b, boolean printKey) {
 		n = p.multiply(q); // n = p * q
 		m = p.add(minusOne).multiply(q.add(minusOne)); // m = (p-1)(q-1)
 		if (EuclideanAlgorithm.euclideanAlgorithm(m, b).compareTo(BigInteger.ONE) != 0) {
@@ -17,17 +34,129 @@ public class RSA_Cryptosystem {
 			this.b = b;
 		}
 		key = EuclideanAlgorithm.multiplicativeInverse(b, m);
-		System.out.println("key=" + key);
+		this.p = p;
+		this.q = q;
+		dP = key.mod(p.add(minusOne)); // dP = key mod (p-1)
+		dQ = key.mod(q.add(minusOne)); // dQ = key mod (q-1)
+		qInv = EuclideanAlgorithm.multiplicativeInverse(q, p); // qInv = q^(-1) mod p
+		if (printKey) {
+			System.out.println("key=" + key);
+		}
 	}
 
 	public BigInteger encryption(BigInteger input) {
-		BigInteger result = power(input, b);
-		return result.mod(n);
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		BigInteger result = input.modPow(b, n);
+		return RsaMetrics.stop(event, "encryption", input.bitLength(), n.bitLength(), result);
+	}
+
+	/**
+	 * Encrypts every input in parallel on common ForkJoin pool
+	 *
+	 * @param inputs plaintexts
+	 * @return ciphertexts, result[i] is encryption of inputs[i]
+	 */
+	public BigInteger[] encryption(BigInteger[] inputs) {
+		return encryption(inputs, ForkJoinPool.commonPool());
+	}
+
+	public BigInteger[] encryption(BigInteger[] inputs, ForkJoinPool pool) {
+		return batch(inputs, pool, false);
 	}
 
+	public BigInteger[] encryption(Stream<BigInteger> inputs) {
+		return encryption(inputs.toArray(BigInteger[]::new));
+	}
+
+	/**
+	 * Decrypts using Chinese Remainder Theorem,
+	 * two exponentiations with half size modulus and exponent instead of one full size
+	 *
+	 * @param input ciphertext
+	 * @return plaintext, input^key mod n
+	 */
 	public BigInteger decryption(BigInteger input) {
-		BigInteger result = power(input, key);
-		return result.mod(n);
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		BigInteger result = crtDecryption(input);
+		return RsaMetrics.stop(event, "decryption", input.bitLength(), n.bitLength(), result);
+	}
+
+	/**
+	 * Decrypts every input in parallel on common ForkJoin pool
+	 *
+	 * @param inputs ciphertexts
+	 * @return plaintexts, result[i] is decryption of inputs[i]
+	 */
+	public BigInteger[] decryption(BigInteger[] inputs) {
+		return decryption(inputs, ForkJoinPool.commonPool());
+	}
+
+	public BigInteger[] decryption(BigInteger[] inputs, ForkJoinPool pool) {
+		return batch(inputs, pool, true);
+	}
+
+	public BigInteger[] decryption(Stream<BigInteger> inputs) {
+		return decryption(inputs.toArray(BigInteger[]::new));
+	}
+
+	/*
+	exponentiation is left to BigInteger.modPow, JIT replaces its Montgomery multiplication with intrinsics
+	 */
+	private BigInteger crtDecryption(BigInteger input) {
+		BigInteger first = input.modPow(dP, p); // input^dP mod p
+		BigInteger second = input.modPow(dQ, q); // input^dQ mod q
+		BigInteger h = EuclideanAlgorithm.mod(qInv.multiply(first.subtract(second)), p);
+		return second.add(h.multiply(q));
+	}
+
+	/*
+	helper for batch methods, splits inputs between workers of pool
+	result keeps order of inputs
+	 */
+	private BigInteger[] batch(BigInteger[] inputs, ForkJoinPool pool, boolean decrypt) {
+		BigInteger[] result = new BigInteger[inputs.length];
+		if (inputs.length == 0) {
+			return result;
+		}
+		RsaMetrics.RsaEvent event = RsaMetrics.start();
+		int threshold = Math.max(1, inputs.length / (pool.getParallelism() * 8));
+		pool.invoke(new BatchTask(inputs, result, 0, inputs.length, threshold, decrypt));
+		return RsaMetrics.stop(event, decrypt ? "batchDecryption" : "batchEncryption", inputs.length, n.bitLength(), result);
+	}
+
+	/*
+	processes range [from, to) of inputs, ranges larger than threshold are split in half
+	 */
+	private class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final BigInteger[] inputs;
+		private final BigInteger[] result;
+		private final int from;
+		private final int to;
+		private final int threshold;
+		private final boolean decrypt;
+
+		BatchTask(BigInteger[] inputs, BigInteger[] result, int from, int to, int threshold, boolean decrypt) {
+			this.inputs = inputs;
+			this.result = result;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.decrypt = decrypt;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > threshold) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new BatchTask(inputs, result, from, middle, threshold, decrypt),
+						new BatchTask(inputs, result, middle, to, threshold, decrypt));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				result[i] = decrypt ? crtDecryption(inputs[i]) : inputs[i].modPow(b, n);
+			}
+		}
 	}
 
 	public BigInteger getB() {
@@ -38,13 +167,10 @@ public class RSA_Cryptosystem {
 		return n;
 	}
 
-	private static BigInteger power(BigInteger first, BigInteger second) {
-		BigInteger result = new BigInteger("1");
-		BigInteger i = new BigInteger("0");
-		while (i.compareTo(second) == -1) {
-			result = result.multiply(first);
-			i = i.add(BigInteger.ONE);
-		}
-		return result;
+	/*
+	true if p and q, in either order, are factors this instance was built from
+	 */
+	boolean hasFactors(BigInteger p, BigInteger q) {
+		return (this.p.equals(p) && this.q.equals(q)) || (this.p.equals(q) && this.q.equals(p));
 	}
 }
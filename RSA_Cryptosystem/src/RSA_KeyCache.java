@@ -0,0 +1,244 @@
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+bounded cache of prepared RSA_Cryptosystem instances keyed by public modulus n
+every instance already holds its derived constants: private key, CRT exponents and q^(-1) mod p,
+so hit skips gcd check and inverses
+entries are split between up to STRIPES maps, each guarded by own lock and kept in access order,
+so least recently used entry of stripe is evicted first when stripe is full
+entry expires fixed time after it was built, expired entry is dropped when it is found
+instances are built outside of locks and never print private key
+ */
+public class RSA_KeyCache {
+	private static final int STRIPES = 16;
+
+	private final Stripe[] stripes;
+	private final long expireNanos;
+	private final LongSupplier ticker;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maximumSize most entries kept, at least 1
+	 * @param expireAfter how long entry stays valid after it was built, positive
+	 * @param unit        unit of expireAfter
+	 */
+	public RSA_KeyCache(int maximumSize, long expireAfter, TimeUnit unit) {
+		this(maximumSize, unit.toNanos(expireAfter), System::nanoTime);
+	}
+
+	/*
+	ticker gives time in nanoseconds, so expiration can be tested without waiting
+	 */
+	RSA_KeyCache(int maximumSize, long expireNanos, LongSupplier ticker) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Invalid maximumSize");
+		}
+		if (expireNanos <= 0) {
+			throw new IllegalArgumentException("Invalid expireAfter");
+		}
+		this.expireNanos = expireNanos;
+		this.ticker = ticker;
+		// power of two stripes, every stripe holds at least one entry and capacities add up to maximumSize
+		stripes = new Stripe[Integer.highestOneBit(Math.min(maximumSize, STRIPES))];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Stripe(maximumSize / stripes.length + (i < maximumSize % stripes.length ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Gives cached instance for modulus p * q and public exponent b, builds and caches it on miss
+	 *
+	 * @return prepared RSA_Cryptosystem
+	 * @throws IllegalArgumentException if b is not valid for p and q,
+	 *                                  or key for p * q is cached with other factors, for example p = 1 and q = n
+	 */
+	public RSA_Cryptosystem get(BigInteger p, BigInteger q, BigInteger b) {
+		BigInteger n = p.multiply(q);
+		RSA_Cryptosystem cached = lookup(n, b);
+		if (cached != null) {
+			checkFactors(cached, p, q);
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		RSA_Cryptosystem built = new RSA_Cryptosystem(p, q, b, false);
+		Stripe stripe = stripe(n);
+		synchronized (stripe) {
+			CachedKey entry = stripe.map.get(n);
+			// other thread may have built same key in the meantime, first instance stays
+			if (entry != null && entry.cryptosystem.getB().equals(b) && !expired(entry)) {
+				return checkFactors(entry.cryptosystem, p, q);
+			}
+			stripe.map.put(n, new CachedKey(built, ticker.getAsLong()));
+		}
+		return built;
+	}
+
+	/**
+	 * @param n public modulus
+	 * @return cached instance for n, null if there is none or it expired
+	 */
+	public RSA_Cryptosystem getIfPresent(BigInteger n) {
+		RSA_Cryptosystem cached = lookup(n, null);
+		if (cached == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return cached;
+	}
+
+	public void invalidate(BigInteger n) {
+		Stripe stripe = stripe(n);
+		synchronized (stripe) {
+			stripe.map.remove(n);
+		}
+	}
+
+	public void invalidateAll() {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.map.clear();
+			}
+		}
+	}
+
+	/**
+	 * Drops every expired entry, expired entries are otherwise dropped only when they are looked up
+	 */
+	public void cleanUp() {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				Iterator<CachedKey> iterator = stripe.map.values().iterator();
+				while (iterator.hasNext()) {
+					if (expired(iterator.next())) {
+						iterator.remove();
+						evictions.increment();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return number of cached entries, including expired ones which were not dropped yet
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.map.size();
+			}
+		}
+		return size;
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return entries removed because their stripe was full or they expired
+	 */
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return hits / lookups, 0 if there were no lookups
+	 */
+	public double hitRate() {
+		long hitCount = hitCount();
+		long lookups = hitCount + missCount();
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size() + " hits=" + hitCount() + " misses=" + missCount() + " evictions=" + evictionCount();
+	}
+
+	/*
+	cached instance for n, null if there is none, it expired or its public exponent is not b
+	b is not checked if it is null
+	 */
+	private RSA_Cryptosystem lookup(BigInteger n, BigInteger b) {
+		Stripe stripe = stripe(n);
+		synchronized (stripe) {
+			CachedKey entry = stripe.map.get(n);
+			if (entry == null) {
+				return null;
+			}
+			if (expired(entry)) {
+				stripe.map.remove(n);
+				evictions.increment();
+				return null;
+			}
+			if (b != null && !entry.cryptosystem.getB().equals(b)) {
+				return null;
+			}
+			return entry.cryptosystem;
+		}
+	}
+
+	/*
+	n and b alone do not prove that caller knows private key, so cached instance is given only for its own factors
+	 */
+	private static RSA_Cryptosystem checkFactors(RSA_Cryptosystem cached, BigInteger p, BigInteger q) {
+		if (!cached.hasFactors(p, q)) {
+			throw new IllegalArgumentException("Invalid p and q");
+		}
+		return cached;
+	}
+
+	private boolean expired(CachedKey entry) {
+		return ticker.getAsLong() - entry.created >= expireNanos;
+	}
+
+	private Stripe stripe(BigInteger n) {
+		int hash = n.hashCode();
+		return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+	}
+
+	private static class CachedKey {
+		private final RSA_Cryptosystem cryptosystem;
+		private final long created;
+
+		CachedKey(RSA_Cryptosystem cryptosystem, long created) {
+			this.cryptosystem = cryptosystem;
+			this.created = created;
+		}
+	}
+
+	/*
+	map in access order which drops least recently used entry when it grows over capacity
+	 */
+	private class Stripe {
+		private final Map<BigInteger, CachedKey> map;
+
+		Stripe(int capacity) {
+			map = new LinkedHashMap<BigInteger, CachedKey>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<BigInteger, CachedKey> eldest) {
+					if (size() > capacity) {
+						evictions.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+	}
+}
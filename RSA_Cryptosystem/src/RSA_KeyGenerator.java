@@ -0,0 +1,168 @@
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+generates RSA keys, p and q are searched in parallel
+every worker takes random odd start with two top bits set, sieves window of WINDOW odd candidates
+by small primes and runs PrimalityTest only on survivors, next window continues from end of previous one
+as soon as two primes are found other workers are interrupted
+ */
+public class RSA_KeyGenerator {
+	public static final BigInteger DEFAULT_B = BigInteger.valueOf(65537);
+	// odd candidates sieved at once
+	private static final int WINDOW = 4096;
+	private static final int[] SIEVE_PRIMES = PrimeSieve.oddPrimes(1 << 16);
+	// products of consecutive sieve primes which fit in long, start of window is reduced by each with one mod
+	private static final long[] SIEVE_PRODUCTS = products();
+
+	public static RSA_Cryptosystem generate(int bits) {
+		return generate(bits, DEFAULT_B, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Generates key with modulus of exactly bits bits, private key is not printed
+	 *
+	 * @param bits    size of modulus n, even number at least 32
+	 * @param b       public exponent, odd number greater than 1
+	 * @param workers number of threads searching primes
+	 * @return ready RSA_Cryptosystem
+	 */
+	public static RSA_Cryptosystem generate(int bits, BigInteger b, int workers) {
+		BigInteger[] primes = generatePrimes(bits, b, workers);
+		return new RSA_Cryptosystem(primes[0], primes[1], b, false);
+	}
+
+	/**
+	 * Finds two different primes p and q of bits / 2 bits such that p * q has bits bits
+	 * and gcd(b, (p-1)(q-1)) = 1
+	 *
+	 * @return array {p, q}
+	 */
+	public static BigInteger[] generatePrimes(int bits, BigInteger b, int workers) {
+		if (bits < 32 || bits % 2 != 0) {
+			throw new IllegalArgumentException("Invalid bits");
+		}
+		if (b.compareTo(BigInteger.ONE) <= 0 || !b.testBit(0)) {
+			throw new IllegalArgumentException("Invalid b");
+		}
+		int primeBits = bits / 2;
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		CompletionService<BigInteger> completion = new ExecutorCompletionService<>(executor);
+		try {
+			for (int i = 0; i < workers; i++) {
+				completion.submit(searchTask(primeBits, b));
+			}
+			BigInteger p = null;
+			while (true) {
+				BigInteger prime = completion.take().get();
+				if (p == null) {
+					p = prime;
+				} else if (!prime.equals(p)) {
+					return new BigInteger[]{p, prime};
+				}
+				completion.submit(searchTask(primeBits, b));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Key generation was cancelled");
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	task of one worker, returns first prime p of primeBits bits with gcd(p - 1, b) = 1
+	 */
+	private static Callable<BigInteger> searchTask(int primeBits, BigInteger b) {
+		return () -> {
+			SecureRandom random = new SecureRandom();
+			boolean[] composite = new boolean[WINDOW];
+			BigInteger start = randomStart(primeBits, random);
+			while (!Thread.currentThread().isInterrupted()) {
+				sieveWindow(start, composite);
+				for (int i = 0; i < WINDOW; i++) {
+					if (composite[i]) {
+						continue;
+					}
+					BigInteger candidate = start.add(BigInteger.valueOf(2L * i));
+					if (candidate.bitLength() != primeBits) {
+						break;
+					}
+					if (PrimalityTest.isProbablePrime(candidate) && candidate.subtract(BigInteger.ONE).gcd(b).equals(BigInteger.ONE)) {
+						return candidate;
+					}
+					if (Thread.currentThread().isInterrupted()) {
+						break;
+					}
+				}
+				start = start.add(BigInteger.valueOf(2L * WINDOW));
+				if (start.bitLength() != primeBits) {
+					start = randomStart(primeBits, random);
+				}
+			}
+			throw new CancellationException("Search was cancelled");
+		};
+	}
+
+	/*
+	composite[i] is true if start + 2i has small prime factor
+	start mod each sieve prime is found from start mod product of primes
+	 */
+	private static void sieveWindow(BigInteger start, boolean[] composite) {
+		for (int i = 0; i < composite.length; i++) {
+			composite[i] = false;
+		}
+		// for small starts window can contain sieve primes, they must not be marked, small = -1 for large starts
+		long small = start.bitLength() < 32 ? start.longValue() : -1;
+		int k = 0;
+		for (long product : SIEVE_PRODUCTS) {
+			long remainder = start.mod(BigInteger.valueOf(product)).longValue();
+			while (k < SIEVE_PRIMES.length && product % SIEVE_PRIMES[k] == 0) {
+				int prime = SIEVE_PRIMES[k++];
+				int r = (int) (remainder % prime);
+				// first i with r + 2i = 0 mod prime, (prime + 1) / 2 is inverse of 2
+				int i = (int) ((long) ((prime - r) % prime) * ((prime + 1) / 2) % prime);
+				if (small >= 0 && small + 2L * i == prime) {
+					i += prime;
+				}
+				for (; i < composite.length; i += prime) {
+					composite[i] = true;
+				}
+			}
+		}
+	}
+
+	private static BigInteger randomStart(int primeBits, SecureRandom random) {
+		return new BigInteger(primeBits, random).setBit(primeBits - 1).setBit(primeBits - 2).setBit(0);
+	}
+
+	private static long[] products() {
+		long[] products = new long[SIEVE_PRIMES.length];
+		int count = 0;
+		long product = 1;
+		for (int p : SIEVE_PRIMES) {
+			if (product > Long.MAX_VALUE / p) {
+				products[count++] = product;
+				product = 1;
+			}
+			product *= p;
+		}
+		products[count++] = product;
+		long[] result = new long[count];
+		System.arraycopy(products, 0, result, 0, count);
+		return result;
+	}
+
+	private RSA_KeyGenerator() {
+		throw new IllegalStateException("Utility class");
+	}
+}
@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+load generator for RSA_Server: every connection has own RSA_Client and thread which keeps window requests in flight
+latency of request is time from send to response, as seen by client
+main runs server with generated key and load against it in same JVM:
+java RSA_LoadGenerator [keyBits] [connections] [requests per connection] [window]
+ */
+public class RSA_LoadGenerator {
+	// distinct inputs cycled by every connection
+	private static final int INPUTS = 64;
+
+	/**
+	 * @param decryption  true for decryption requests, false for encryption requests
+	 * @param connections number of connections
+	 * @param requests    requests sent by every connection
+	 * @param window      most requests of one connection waiting for response
+	 * @return latency and throughput of all requests
+	 */
+	public static Report run(int port, int keyId, boolean decryption, int connections, int requests, int window) throws IOException, InterruptedException {
+		if (connections < 1 || requests < 0 || window < 1) {
+			throw new IllegalArgumentException("Invalid load");
+		}
+		RSA_Client[] clients = new RSA_Client[connections];
+		try {
+			for (int i = 0; i < connections; i++) {
+				clients[i] = new RSA_Client(port);
+			}
+			BigInteger n = clients[0].publicKey(keyId).join()[0];
+			Random random = new Random(keyId);
+			BigInteger[] inputs = new BigInteger[INPUTS];
+			for (int i = 0; i < INPUTS; i++) {
+				inputs[i] = new BigInteger(n.bitLength(), random).mod(n);
+			}
+			OperationStatistics latency = new OperationStatistics();
+			LongAdder errors = new LongAdder();
+			CountDownLatch done = new CountDownLatch(connections * requests);
+			Thread[] senders = new Thread[connections];
+			long start = System.nanoTime();
+			for (int c = 0; c < connections; c++) {
+				RSA_Client client = clients[c];
+				senders[c] = new Thread(() -> {
+					Semaphore inFlight = new Semaphore(window);
+					for (int i = 0; i < requests; i++) {
+						inFlight.acquireUninterruptibly();
+						BigInteger input = inputs[i % INPUTS];
+						long sent = System.nanoTime();
+						(decryption ? client.decryption(keyId, input) : client.encryption(keyId, input)).whenComplete((result, failure) -> {
+							if (failure == null) {
+								latency.record(System.nanoTime() - sent, input.bitLength());
+							} else {
+								errors.increment();
+							}
+							inFlight.release();
+							done.countDown();
+						});
+					}
+				}, "RSA_LoadGenerator sender");
+				senders[c].start();
+			}
+			for (Thread sender : senders) {
+				sender.join();
+			}
+			done.await();
+			return new Report(connections * (long) requests, errors.sum(), System.nanoTime() - start, latency);
+		} finally {
+			for (RSA_Client client : clients) {
+				if (client != null) {
+					client.close();
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int keyBits = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+		int connections = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int requests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+		int window = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+		try (RSA_Server server = new RSA_Server(0)) {
+			int keyId = server.register(RSA_KeyGenerator.generate(keyBits));
+			// warm up, so JIT compiled code is measured
+			run(server.getPort(), keyId, true, connections, Math.max(1, requests / 10), window);
+			System.out.println("encryption: " + run(server.getPort(), keyId, false, connections, requests, window));
+			System.out.println("decryption: " + run(server.getPort(), keyId, true, connections, requests, window));
+			System.out.println(server);
+		}
+	}
+
+	/**
+	 * Result of one run, latency is in nanoseconds
+	 */
+	public static class Report {
+		private final long requests;
+		private final long errors;
+		private final long elapsedNanos;
+		private final OperationStatistics latency;
+
+		Report(long requests, long errors, long elapsedNanos, OperationStatistics latency) {
+			this.requests = requests;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+			this.latency = latency;
+		}
+
+		public long requests() {
+			return requests;
+		}
+
+		public long errors() {
+			return errors;
+		}
+
+		public long elapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * @return requests per second
+		 */
+		public double throughput() {
+			return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * @return latency of successful requests
+		 */
+		public OperationStatistics latency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("requests=%d errors=%d throughput=%.0f/s p50=%dus p99=%dus max=%dus", requests, errors, throughput(),
+					latency.percentileNanos(50) / 1000, latency.percentileNanos(99) / 1000, latency.maxNanos() / 1000);
+		}
+	}
+
+	private RSA_LoadGenerator() {
+		throw new IllegalStateException("Utility class");
+	}
+}
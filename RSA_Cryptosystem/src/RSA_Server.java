@@ -0,0 +1,459 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+RSA encryption service on loopback TCP socket, clients refer to keys by id given by register
+protocol is binary, every number big endian, every frame starts with int length of rest of frame:
+request  = length, int requestId, byte operation, int keyId, value
+response = length, int requestId, byte status, value
+value is two's complement bytes of BigInteger, for PUBLIC_KEY response it is int length of n, n and b
+requests of one connection may be pipelined, responses come back in order in which they are done
+every connection has reader and writer thread, virtual threads when JVM has them (Java 21+), else platform threads
+encryption and decryption requests for same key wait in queue of that key, whole queue is taken as one batch
+and run by batch methods of RSA_Cryptosystem on bounded pool, so requests which come while batch runs form next batch
+backpressure: reader of connection stops reading when connection has too many requests without written response,
+or when whole server has too many requests without result, so TCP window of client fills up
+client may shut down its output after last request, every response it is owed is still written before socket is closed
+ */
+public class RSA_Server implements Closeable {
+	public static final byte ENCRYPTION = 0;
+	public static final byte DECRYPTION = 1;
+	public static final byte PUBLIC_KEY = 2;
+
+	public static final byte OK = 0;
+	public static final byte UNKNOWN_KEY = 1;
+	public static final byte INVALID_REQUEST = 2;
+	public static final byte SERVER_ERROR = 3;
+
+	// requestId, operation and keyId
+	static final int REQUEST_HEADER_SIZE = 9;
+	// requestId and status
+	static final int RESPONSE_HEADER_SIZE = 5;
+	// larger request frame is protocol error and closes connection
+	public static final int MAX_FRAME_SIZE = 1 << 16;
+	public static final int MAX_BATCH = 256;
+	public static final int DEFAULT_MAX_PENDING = 4096;
+	public static final int DEFAULT_MAX_PENDING_PER_CONNECTION = 256;
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService threads;
+	private final ForkJoinPool workers;
+	private final Semaphore pending;
+	private final int maxPendingPerConnection;
+	private final Map<Integer, Key> keys = new ConcurrentHashMap<>();
+	private final AtomicInteger nextKeyId = new AtomicInteger();
+	private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+	private volatile boolean closed;
+
+	/**
+	 * Server with worker for every processor and default limits
+	 *
+	 * @param port port on loopback address, 0 for any free port
+	 */
+	public RSA_Server(int port) throws IOException {
+		this(port, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_PENDING, DEFAULT_MAX_PENDING_PER_CONNECTION);
+	}
+
+	/**
+	 * Binds to loopback address and starts accepting connections
+	 *
+	 * @param port                    port on loopback address, 0 for any free port
+	 * @param workers                 threads which run batches
+	 * @param maxPending              most requests of whole server which wait for result
+	 * @param maxPendingPerConnection most requests of one connection which wait for written response
+	 */
+	public RSA_Server(int port, int workers, int maxPending, int maxPendingPerConnection) throws IOException {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Invalid workers");
+		}
+		if (maxPending < 1 || maxPendingPerConnection < 1) {
+			throw new IllegalArgumentException("Invalid maxPending");
+		}
+		this.workers = new ForkJoinPool(workers);
+		this.pending = new Semaphore(maxPending);
+		this.maxPendingPerConnection = maxPendingPerConnection;
+		serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		threads = newThreadPerTaskExecutor();
+		threads.execute(this::accept);
+	}
+
+	/**
+	 * @return id which clients use for cryptosystem, ids start at 1
+	 */
+	public int register(RSA_Cryptosystem cryptosystem) {
+		int keyId = nextKeyId.incrementAndGet();
+		keys.put(keyId, new Key(cryptosystem));
+		return keyId;
+	}
+
+	/**
+	 * Requests for key which already wait in its queue are still done
+	 */
+	public void unregister(int keyId) {
+		keys.remove(keyId);
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @param operation ENCRYPTION or DECRYPTION
+	 * @return latency of requests from reading to result, null if key or operation is not known
+	 */
+	public OperationStatistics statistics(int keyId, byte operation) {
+		Lane lane = lane(keyId, operation);
+		return lane == null ? null : lane.latency;
+	}
+
+	/**
+	 * @param operation ENCRYPTION or DECRYPTION
+	 * @return number of batches run for key and operation, -1 if key or operation is not known
+	 */
+	public long batchCount(int keyId, byte operation) {
+		Lane lane = lane(keyId, operation);
+		return lane == null ? -1 : lane.batches.sum();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("port=" + getPort() + " connections=" + connections.size());
+		for (Map.Entry<Integer, Key> entry : new TreeMap<>(keys).entrySet()) {
+			for (Lane lane : new Lane[]{entry.getValue().encryption, entry.getValue().decryption}) {
+				long count = lane.latency.count();
+				if (count > 0) {
+					result.append(System.lineSeparator()).append("key ").append(entry.getKey())
+							.append(lane.decryption ? " decryption: " : " encryption: ").append(lane.latency)
+							.append(" batches=").append(lane.batches.sum());
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Stops accepting, closes every connection and stops workers, requests without result get no response
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		serverSocket.close();
+		for (Connection connection : connections) {
+			connection.close();
+		}
+		threads.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	private Lane lane(int keyId, byte operation) {
+		Key key = keys.get(keyId);
+		if (key == null) {
+			return null;
+		}
+		if (operation == ENCRYPTION) {
+			return key.encryption;
+		}
+		return operation == DECRYPTION ? key.decryption : null;
+	}
+
+	private void accept() {
+		while (!closed) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Connection connection = new Connection(socket);
+				connections.add(connection);
+				threads.execute(connection::read);
+				threads.execute(connection::write);
+			} catch (IOException | RejectedExecutionException e) {
+				// socket was closed by close, or accepted connection failed at once
+			}
+		}
+	}
+
+	/*
+	request was read and has permits of connection and server
+	 */
+	private void dispatch(Request request, int keyId, byte[] value) {
+		Key key = keys.get(keyId);
+		if (key == null) {
+			respond(request, UNKNOWN_KEY, EMPTY);
+			return;
+		}
+		if (request.operation == PUBLIC_KEY) {
+			respond(request, OK, publicKey(key.cryptosystem));
+			return;
+		}
+		Lane lane = lane(keyId, request.operation);
+		BigInteger input = value.length == 0 ? null : new BigInteger(value);
+		if (lane == null || input == null || input.signum() < 0 || input.compareTo(key.cryptosystem.getN()) >= 0) {
+			respond(request, INVALID_REQUEST, EMPTY);
+			return;
+		}
+		request.input = input;
+		lane.submit(request);
+	}
+
+	/*
+	result is ready, permit of server is given back, permit of connection is given back after response is written
+	 */
+	private void respond(Request request, byte status, byte[] value) {
+		request.status = status;
+		request.result = value;
+		pending.release();
+		request.connection.responses.add(request);
+	}
+
+	private static byte[] publicKey(RSA_Cryptosystem cryptosystem) {
+		byte[] n = cryptosystem.getN().toByteArray();
+		byte[] b = cryptosystem.getB().toByteArray();
+		return ByteBuffer.allocate(4 + n.length + b.length).putInt(n.length).put(n).put(b).array();
+	}
+
+	/*
+	Executors.newVirtualThreadPerTaskExecutor exists only since Java 21, so it is looked up at run time
+	 */
+	private static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(task -> {
+				Thread thread = new Thread(task, "RSA_Server connection");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private class Key {
+		private final RSA_Cryptosystem cryptosystem;
+		private final Lane encryption;
+		private final Lane decryption;
+
+		Key(RSA_Cryptosystem cryptosystem) {
+			this.cryptosystem = cryptosystem;
+			encryption = new Lane(cryptosystem, false);
+			decryption = new Lane(cryptosystem, true);
+		}
+	}
+
+	/*
+	queue of one key and operation, at most one batch of it is scheduled or running at any time
+	after batch it schedules itself again instead of looping, so other keys get workers too
+	 */
+	private class Lane implements Runnable {
+		private final RSA_Cryptosystem cryptosystem;
+		private final boolean decryption;
+		private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final OperationStatistics latency = new OperationStatistics();
+		private final LongAdder batches = new LongAdder();
+
+		Lane(RSA_Cryptosystem cryptosystem, boolean decryption) {
+			this.cryptosystem = cryptosystem;
+			this.decryption = decryption;
+		}
+
+		void submit(Request request) {
+			queue.add(request);
+			schedule();
+		}
+
+		private void schedule() {
+			if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+				try {
+					workers.execute(this);
+				} catch (RejectedExecutionException e) {
+					// server is closed
+					scheduled.set(false);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				List<Request> batch = new ArrayList<>();
+				Request request;
+				while (batch.size() < MAX_BATCH && (request = queue.poll()) != null) {
+					batch.add(request);
+				}
+				if (!batch.isEmpty()) {
+					process(batch);
+				}
+			} finally {
+				// request added after queue was emptied saw scheduled set and relies on this check
+				scheduled.set(false);
+				schedule();
+			}
+		}
+
+		private void process(List<Request> batch) {
+			BigInteger[] inputs = new BigInteger[batch.size()];
+			for (int i = 0; i < inputs.length; i++) {
+				inputs[i] = batch.get(i).input;
+			}
+			BigInteger[] outputs;
+			try {
+				outputs = decryption ? cryptosystem.decryption(inputs, workers) : cryptosystem.encryption(inputs, workers);
+			} catch (RuntimeException e) {
+				for (Request request : batch) {
+					respond(request, SERVER_ERROR, EMPTY);
+				}
+				return;
+			}
+			batches.increment();
+			long now = System.nanoTime();
+			for (int i = 0; i < inputs.length; i++) {
+				Request request = batch.get(i);
+				latency.record(now - request.received, inputs[i].bitLength());
+				respond(request, OK, outputs[i].toByteArray());
+			}
+		}
+	}
+
+	private static class Request {
+		private final Connection connection;
+		private final int id;
+		private final byte operation;
+		private final long received;
+		private BigInteger input;
+		private byte status;
+		private byte[] result;
+
+		Request(Connection connection, int id, byte operation, long received) {
+			this.connection = connection;
+			this.id = id;
+			this.operation = operation;
+			this.received = received;
+		}
+	}
+
+	private class Connection {
+		private final Socket socket;
+		private final BlockingQueue<Request> responses = new LinkedBlockingQueue<>();
+		private final Semaphore permits = new Semaphore(maxPendingPerConnection);
+		private final AtomicBoolean open = new AtomicBoolean(true);
+		// tells writer to stop
+		private final Request closing = new Request(this, 0, (byte) 0, 0);
+
+		Connection(Socket socket) {
+			this.socket = socket;
+		}
+
+		/*
+		on end of stream between frames reader stops, waits until writer gave back every permit
+		of connection and tells writer to stop, writer then flushes last responses and closes connection
+		any other end closes connection at once
+		 */
+		void read() {
+			boolean draining = false;
+			try {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				while (true) {
+					int length;
+					try {
+						length = in.readInt();
+					} catch (EOFException e) {
+						permits.acquire(maxPendingPerConnection);
+						draining = true;
+						responses.add(closing);
+						break;
+					}
+					if (length < REQUEST_HEADER_SIZE || length > MAX_FRAME_SIZE) {
+						break;
+					}
+					int requestId = in.readInt();
+					byte operation = in.readByte();
+					int keyId = in.readInt();
+					byte[] value = new byte[length - REQUEST_HEADER_SIZE];
+					in.readFully(value);
+					permits.acquire();
+					pending.acquire();
+					dispatch(new Request(this, requestId, operation, System.nanoTime()), keyId, value);
+				}
+			} catch (IOException e) {
+				// connection was closed
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				if (!draining) {
+					close();
+				}
+			}
+		}
+
+		void write() {
+			try {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				while (true) {
+					Request request = responses.take();
+					if (request == closing) {
+						out.flush();
+						break;
+					}
+					out.writeInt(RESPONSE_HEADER_SIZE + request.result.length);
+					out.writeInt(request.id);
+					out.writeByte(request.status);
+					out.write(request.result);
+					permits.release();
+					// responses which are already done go out in one packet
+					if (responses.isEmpty()) {
+						out.flush();
+					}
+				}
+			} catch (IOException e) {
+				// connection was closed
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				close();
+			}
+		}
+
+		void close() {
+			if (!open.compareAndSet(true, false)) {
+				return;
+			}
+			connections.remove(this);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// already closed
+			}
+			responses.add(closing);
+			// reader may wait for permit which writer will not give back anymore
+			permits.release(maxPendingPerConnection);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Map;
+
+/*
+optional instrumentation of RSA_Cryptosystem and FactoringAlgorithms, off unless JVM runs with -Drsa.metrics=true
+ENABLED is static final, so when it is false JIT folds every check away and instrumented methods run as before
+when it is true every call updates counters and latency histogram of its operation, so decryption and factoring
+have separate statistics and events
+and is JFR event cryptography.RsaOperation, which is recorded only while JFR recording has this event enabled
+ */
+public class RsaMetrics {
+	public static final boolean ENABLED = Boolean.getBoolean("rsa.metrics");
+
+	private static final OperationRegistry OPERATIONS = new OperationRegistry();
+
+	/**
+	 * @param operation name of instrumented method
+	 * @return statistics of operation, null if it was never called with metrics enabled
+	 */
+	public static OperationStatistics statistics(String operation) {
+		return OPERATIONS.statistics(operation);
+	}
+
+	/**
+	 * @return statistics of every called operation, sorted by name
+	 */
+	public static Map<String, OperationStatistics> operations() {
+		return OPERATIONS.operations();
+	}
+
+	/**
+	 * Forgets statistics of every operation
+	 */
+	public static void reset() {
+		OPERATIONS.reset();
+	}
+
+	/*
+	called at start of instrumented code, null if metrics are disabled
+	 */
+	static RsaEvent start() {
+		if (!ENABLED) {
+			return null;
+		}
+		RsaEvent event = new RsaEvent();
+		event.begin();
+		event.startNanos = System.nanoTime();
+		return event;
+	}
+
+	/*
+	called at end of instrumented code with event from start, gives back result of instrumented code
+	 */
+	static <T> T stop(RsaEvent event, String operation, long inputSize, long keySize, T result) {
+		if (!ENABLED) {
+			return result;
+		}
+		long elapsed = System.nanoTime() - event.startNanos;
+		OPERATIONS.record(operation, elapsed, inputSize);
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.inputSize = inputSize;
+			event.keySize = keySize;
+			event.commit();
+		}
+		return result;
+	}
+
+	@Name("cryptography.RsaOperation")
+	@Label("RSA Operation")
+	@Category("Cryptography")
+	@Description("Call of RSA_Cryptosystem or FactoringAlgorithms")
+	@StackTrace(false)
+	static class RsaEvent extends Event {
+		@Label("Operation")
+		String operation;
+		@Label("Input Size")
+		@Description("Bits of message or of number to factor, number of messages of batch call")
+		long inputSize;
+		@Label("Key Size")
+		@Description("Bits of modulus, 0 for factoring")
+		long keySize;
+		// not part of event, start time of statistics
+		transient long startNanos;
+	}
+
+	private RsaMetrics() {
+		throw new IllegalStateException("Utility class");
+	}
+}
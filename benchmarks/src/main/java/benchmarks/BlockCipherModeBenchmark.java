@@ -0,0 +1,68 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+BlockCipherMode over size bytes with 64 bit blocks of default network
+every mode instance keeps its state between calls, so each call continues stream of previous one
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockCipherModeBenchmark {
+	private static final String MODE = "BlockCipherMode";
+	private static final MethodHandle UPDATE = Handles.virtualMethod(MODE, "update", int.class, byte[].class, int.class, int.class, byte[].class, int.class);
+
+	@Param({"65536", "16777216"})
+	public int size;
+
+	private byte[] input;
+	private byte[] output;
+	private Object counter;
+	private Object chainEncryption;
+	private Object chainDecryption;
+
+	@Setup
+	public void setup() throws ClassNotFoundException {
+		input = new byte[size];
+		new Random(size).nextBytes(input);
+		output = new byte[size + 8];
+		Object network = Handles.invoke("AdvancedCipherEncrypter", "packedNetwork", new Class<?>[]{int.class}, 64);
+		Class<?>[] parameters = {Class.forName("PackedSubstitutionPermutationNetwork"), long.class};
+		counter = Handles.invoke(MODE, "counter", parameters, network, 1L);
+		chainEncryption = Handles.invoke(MODE, "chainEncryption", parameters, network, 1L);
+		chainDecryption = Handles.invoke(MODE, "chainDecryption", parameters, network, 1L);
+	}
+
+	@Benchmark
+	public int counter() throws Throwable {
+		return (int) UPDATE.invokeExact(counter, input, 0, size, output, 0);
+	}
+
+	@Benchmark
+	public int chainEncryption() throws Throwable {
+		return (int) UPDATE.invokeExact(chainEncryption, input, 0, size, output, 0);
+	}
+
+	@Benchmark
+	public int chainDecryption() throws Throwable {
+		return (int) UPDATE.invokeExact(chainDecryption, input, 0, size, output, 0);
+	}
+}
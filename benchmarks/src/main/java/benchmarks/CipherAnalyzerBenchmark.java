@@ -0,0 +1,81 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+attacks of CipherAnalyzer on ciphertext of size letters, letters are drawn with English frequencies
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CipherAnalyzerBenchmark {
+	private static final String ANALYZER = "CipherAnalyzer";
+	private static final MethodHandle SHIFT_KEY = Handles.staticMethod(ANALYZER, "shiftKey", int.class, String.class);
+	private static final MethodHandle AFFINE_KEY = Handles.staticMethod(ANALYZER, "affineKey", int[].class, String.class);
+	private static final MethodHandle VIGENERE_KEY = Handles.staticMethod(ANALYZER, "vigenereKey", String.class, String.class, int.class);
+	private static final MethodHandle SUBSTITUTION_KEY = Handles.staticMethod(ANALYZER, "substitutionKey", char[].class, String.class, int.class, long.class);
+	private static final MethodHandle VIGENERE = Handles.staticMethod("CipherEncrypter", "vigenereCipher", String.class, String.class, String.class);
+
+	// cumulative frequencies of a..z in English text, in thousandths
+	private static final int[] CUMULATIVE = {82, 97, 125, 167, 294, 316, 336, 397, 467, 468, 476, 516, 540,
+			608, 683, 702, 703, 763, 826, 917, 944, 954, 978, 979, 999, 1000};
+
+	@Param({"65536", "4194304"})
+	public int size;
+
+	private String text;
+	private String vigenere;
+
+	@Setup
+	public void setup() throws Throwable {
+		Random random = new Random(size);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			int value = random.nextInt(1000);
+			int letter = 0;
+			while (CUMULATIVE[letter] <= value) {
+				letter++;
+			}
+			builder.append((char) ('a' + letter));
+		}
+		text = builder.toString();
+		vigenere = (String) VIGENERE.invokeExact("cryptanalysis", text);
+	}
+
+	@Benchmark
+	public int shiftKey() throws Throwable {
+		return (int) SHIFT_KEY.invokeExact(text);
+	}
+
+	@Benchmark
+	public int[] affineKey() throws Throwable {
+		return (int[]) AFFINE_KEY.invokeExact(text);
+	}
+
+	@Benchmark
+	public String vigenereKey() throws Throwable {
+		return (String) VIGENERE_KEY.invokeExact(vigenere, 20);
+	}
+
+	@Benchmark
+	public char[] substitutionKey() throws Throwable {
+		return (char[]) SUBSTITUTION_KEY.invokeExact(text, 8, 1L);
+	}
+}
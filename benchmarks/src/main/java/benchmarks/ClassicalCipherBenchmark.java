@@ -0,0 +1,154 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+every cipher of CipherEncrypter and its faster forms, text of size chars, or of size bytes for AsciiCipher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassicalCipherBenchmark {
+	private static final String CIPHER = "CipherEncrypter";
+	private static final MethodHandle SHIFT = Handles.staticMethod(CIPHER, "shiftCipher", String.class, int.class, String.class);
+	private static final MethodHandle SUBSTITUTION = Handles.staticMethod(CIPHER, "substitutionCipher", String.class, char[].class, char[].class, String.class);
+	private static final MethodHandle SUBSTITUTION_LOWER_CASE = Handles.staticMethod(CIPHER, "substitutionCipher", String.class, char[].class, String.class);
+	private static final MethodHandle AFFINE = Handles.staticMethod(CIPHER, "affineCipher", String.class, int.class, int.class, String.class);
+	private static final MethodHandle VIGENERE = Handles.staticMethod(CIPHER, "vigenereCipher", String.class, String.class, String.class);
+	private static final MethodHandle HILL = Handles.staticMethod(CIPHER, "hillCipher", String.class, int[][].class, String.class);
+	private static final MethodHandle HILL_DECRYPTION = Handles.staticMethod(CIPHER, "hillCipherDecryption", String.class, int[][].class, String.class);
+	private static final MethodHandle SHIFT_RANGE = Handles.staticMethod(CIPHER, "shiftCipher", int.class, int.class, CharSequence.class, int.class, int.class, char[].class, int.class);
+	private static final MethodHandle VIGENERE_RANGE = Handles.staticMethod(CIPHER, "vigenereCipher", int.class, String.class, CharSequence.class, int.class, int.class, char[].class, int.class);
+	private static final MethodHandle VIGENERE_DECRYPTION_RANGE = Handles.staticMethod(CIPHER, "vigenereCipherDecryption", int.class, String.class, CharSequence.class, int.class, int.class, char[].class, int.class);
+	private static final MethodHandle COMPILED = Handles.virtualMethod("CompiledCipher", "encrypt", String.class, String.class);
+	private static final MethodHandle PARALLEL_VIGENERE = Handles.staticMethod("ParallelVigenereCipher", "vigenereCipher", String.class, String.class, String.class);
+	private static final MethodHandle ASCII_SHIFT = Handles.staticMethod("AsciiCipher", "shiftCipher", int.class, int.class, byte[].class, int.class, int.class, byte[].class, int.class);
+	private static final MethodHandle ASCII_VIGENERE = Handles.staticMethod("AsciiCipher", "vigenereCipher", int.class, String.class, int.class, byte[].class, int.class, int.class, byte[].class, int.class);
+
+	private static final char[] LOWER_CASE = "qwertyuiopasdfghjklzxcvbnm".toCharArray();
+	private static final char[] UPPER_CASE = "QWERTYUIOPASDFGHJKLZXCVBNM".toCharArray();
+	private static final int[][] HILL_KEY = {{11, 8}, {3, 7}};
+
+	@Param({"64", "4096", "262144"})
+	public int size;
+
+	private String text;
+	private String letters;
+	private byte[] bytes;
+	private byte[] output;
+	private char[] chars;
+	private Object compiledShift;
+	private Object compiledAffine;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		String alphabet = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ ";
+		StringBuilder textBuilder = new StringBuilder();
+		StringBuilder lettersBuilder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			textBuilder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			lettersBuilder.append(alphabet.charAt(random.nextInt(alphabet.length() - 1)));
+		}
+		text = textBuilder.toString();
+		letters = lettersBuilder.toString();
+		bytes = text.getBytes(StandardCharsets.US_ASCII);
+		output = new byte[size];
+		chars = new char[size];
+		compiledShift = Handles.invoke("CompiledCipher", "shiftCipher", new Class<?>[]{int.class}, 3);
+		compiledAffine = Handles.invoke("CompiledCipher", "affineCipher", new Class<?>[]{int.class, int.class}, 5, 8);
+	}
+
+	@Benchmark
+	public String shiftCipher() throws Throwable {
+		return (String) SHIFT.invokeExact(3, text);
+	}
+
+	@Benchmark
+	public int shiftCipherRange() throws Throwable {
+		return (int) SHIFT_RANGE.invokeExact(3, (CharSequence) text, 0, size, chars, 0);
+	}
+
+	@Benchmark
+	public String substitutionCipher() throws Throwable {
+		return (String) SUBSTITUTION.invokeExact(LOWER_CASE, UPPER_CASE, text);
+	}
+
+	@Benchmark
+	public String substitutionCipherLowerCase() throws Throwable {
+		return (String) SUBSTITUTION_LOWER_CASE.invokeExact(LOWER_CASE, text);
+	}
+
+	@Benchmark
+	public String affineCipher() throws Throwable {
+		return (String) AFFINE.invokeExact(5, 8, text);
+	}
+
+	@Benchmark
+	public String vigenereCipher() throws Throwable {
+		return (String) VIGENERE.invokeExact("cipher", text);
+	}
+
+	@Benchmark
+	public int vigenereCipherRange() throws Throwable {
+		return (int) VIGENERE_RANGE.invokeExact("cipher", (CharSequence) text, 0, size, chars, 0);
+	}
+
+	@Benchmark
+	public int vigenereCipherDecryptionRange() throws Throwable {
+		return (int) VIGENERE_DECRYPTION_RANGE.invokeExact("cipher", (CharSequence) letters, 0, size, chars, 0);
+	}
+
+	@Benchmark
+	public String hillCipher() throws Throwable {
+		return (String) HILL.invokeExact(HILL_KEY, letters);
+	}
+
+	@Benchmark
+	public String hillCipherDecryption() throws Throwable {
+		return (String) HILL_DECRYPTION.invokeExact(HILL_KEY, letters);
+	}
+
+	@Benchmark
+	public String compiledShiftCipher() throws Throwable {
+		return (String) COMPILED.invokeExact(compiledShift, text);
+	}
+
+	@Benchmark
+	public String compiledAffineCipher() throws Throwable {
+		return (String) COMPILED.invokeExact(compiledAffine, text);
+	}
+
+	@Benchmark
+	public String parallelVigenereCipher() throws Throwable {
+		return (String) PARALLEL_VIGENERE.invokeExact("cipher", text);
+	}
+
+	@Benchmark
+	public int asciiShiftCipher() throws Throwable {
+		return (int) ASCII_SHIFT.invokeExact(3, bytes, 0, size, output, 0);
+	}
+
+	@Benchmark
+	public int asciiVigenereCipher() throws Throwable {
+		return (int) ASCII_VIGENERE.invokeExact("cipher", 0, bytes, 0, size, output, 0);
+	}
+}
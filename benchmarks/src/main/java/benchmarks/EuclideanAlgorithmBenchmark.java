@@ -0,0 +1,122 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+every variant of EuclideanAlgorithm, BigInteger operands have 1024 bits
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EuclideanAlgorithmBenchmark {
+	private static final String EUCLIDEAN = "EuclideanAlgorithm";
+	private static final MethodHandle GCD_INT = Handles.staticMethod(EUCLIDEAN, "euclideanAlgorithm", int.class, int.class, int.class);
+	private static final MethodHandle GCD_LONG = Handles.staticMethod(EUCLIDEAN, "euclideanAlgorithm", long.class, long.class, long.class);
+	private static final MethodHandle GCD_BIG_INTEGER = Handles.staticMethod(EUCLIDEAN, "euclideanAlgorithm", BigInteger.class, BigInteger.class, BigInteger.class);
+	private static final MethodHandle EXTENDED_INT = Handles.staticMethod(EUCLIDEAN, "extendedEuclideanAlgorithm", int[].class, int.class, int.class);
+	private static final MethodHandle EXTENDED_LONG = Handles.staticMethod(EUCLIDEAN, "extendedEuclideanAlgorithm", long[].class, long.class, long.class);
+	private static final MethodHandle EXTENDED_BIG_INTEGER = Handles.staticMethod(EUCLIDEAN, "extendedEuclideanAlgorithm", BigInteger[].class, BigInteger.class, BigInteger.class);
+	private static final MethodHandle INVERSE_INT = Handles.staticMethod(EUCLIDEAN, "multiplicativeInverse", int.class, int.class, int.class);
+	private static final MethodHandle INVERSE_BIG_INTEGER = Handles.staticMethod(EUCLIDEAN, "multiplicativeInverse", BigInteger.class, BigInteger.class, BigInteger.class);
+	private static final MethodHandle BATCH_INVERSE_LONG = Handles.staticMethod(EUCLIDEAN, "batchInverse", long.class, long[].class, long.class, long[].class);
+	private static final MethodHandle BATCH_INVERSE_BIG_INTEGER = Handles.staticMethod(EUCLIDEAN, "batchInverse", BigInteger.class, BigInteger[].class, BigInteger.class, BigInteger[].class);
+	// values inverted by one call of batch methods
+	private static final int BATCH_SIZE = 1024;
+
+	private int firstInt;
+	private int secondInt;
+	private long firstLong;
+	private long secondLong;
+	private BigInteger firstBig;
+	private BigInteger secondBig;
+	private long[] batchLong;
+	private long[] inversesLong;
+	private BigInteger[] batchBig;
+	private BigInteger[] inversesBig;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1024);
+		firstInt = random.nextInt(Integer.MAX_VALUE);
+		secondInt = 1000000007;
+		firstLong = random.nextLong() >>> 1;
+		secondLong = 1000000000000000003L;
+		firstBig = new BigInteger(1024, random);
+		secondBig = BigInteger.probablePrime(1024, random);
+		batchLong = new long[BATCH_SIZE];
+		inversesLong = new long[BATCH_SIZE];
+		batchBig = new BigInteger[BATCH_SIZE];
+		inversesBig = new BigInteger[BATCH_SIZE];
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batchLong[i] = 1 + (random.nextLong() >>> 1) % (secondLong - 1);
+			batchBig[i] = new BigInteger(1023, random).add(BigInteger.ONE);
+		}
+	}
+
+	@Benchmark
+	public int euclideanAlgorithmInt() throws Throwable {
+		return (int) GCD_INT.invokeExact(firstInt, secondInt);
+	}
+
+	@Benchmark
+	public long euclideanAlgorithmLong() throws Throwable {
+		return (long) GCD_LONG.invokeExact(firstLong, secondLong);
+	}
+
+	@Benchmark
+	public BigInteger euclideanAlgorithmBigInteger() throws Throwable {
+		return (BigInteger) GCD_BIG_INTEGER.invokeExact(firstBig, secondBig);
+	}
+
+	@Benchmark
+	public int[] extendedEuclideanAlgorithmInt() throws Throwable {
+		return (int[]) EXTENDED_INT.invokeExact(firstInt, secondInt);
+	}
+
+	@Benchmark
+	public long[] extendedEuclideanAlgorithmLong() throws Throwable {
+		return (long[]) EXTENDED_LONG.invokeExact(firstLong, secondLong);
+	}
+
+	@Benchmark
+	public BigInteger[] extendedEuclideanAlgorithmBigInteger() throws Throwable {
+		return (BigInteger[]) EXTENDED_BIG_INTEGER.invokeExact(firstBig, secondBig);
+	}
+
+	@Benchmark
+	public int multiplicativeInverseInt() throws Throwable {
+		return (int) INVERSE_INT.invokeExact(firstInt, secondInt);
+	}
+
+	@Benchmark
+	public BigInteger multiplicativeInverseBigInteger() throws Throwable {
+		return (BigInteger) INVERSE_BIG_INTEGER.invokeExact(firstBig, secondBig);
+	}
+
+	@Benchmark
+	public long batchInverseLong() throws Throwable {
+		return (long) BATCH_INVERSE_LONG.invokeExact(batchLong, secondLong, inversesLong);
+	}
+
+	@Benchmark
+	public BigInteger batchInverseBigInteger() throws Throwable {
+		return (BigInteger) BATCH_INVERSE_BIG_INTEGER.invokeExact(batchBig, secondBig, inversesBig);
+	}
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/*
+FactoringAlgorithms on textbook examples, n = 15770708441 = 135979 * 115979 with B = 180 for p-1,
+n = 7171 = 71 * 101 with x1 = 1 for rho,
+n = 1000036000099 = 1000003 * 1000033 with one ECM curve of B1 = 2000, B2 = 200000 on one worker, which finds factor in stage 2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactoringAlgorithmsBenchmark {
+	private static final String FACTORING = "FactoringAlgorithms";
+	private static final MethodHandle POLLARD = Handles.staticMethod(FACTORING, "pollardFactoringAlgorithm", BigInteger.class, BigInteger.class, BigInteger.class);
+	private static final MethodHandle POLLARD_RHO = Handles.staticMethod(FACTORING, "pollardRhoFactoringAlgorithm", BigInteger.class, BigInteger.class, BigInteger.class);
+	private static final MethodHandle ELLIPTIC_CURVE = Handles.staticMethod(FACTORING, "parallelEllipticCurveFactoringAlgorithm", BigInteger.class, BigInteger.class, long.class, long.class, int.class, int.class);
+	private static final MethodHandle PRIME_VALIDATOR = Handles.staticMethod(FACTORING, "trivialPrimeValidator", boolean.class, long.class);
+
+	private final BigInteger pollardN = new BigInteger("15770708441");
+	private final BigInteger pollardB = BigInteger.valueOf(180);
+	private final BigInteger rhoN = BigInteger.valueOf(7171);
+	private final BigInteger rhoX1 = BigInteger.ONE;
+	private final BigInteger ellipticCurveN = new BigInteger("1000036000099");
+	private final long prime = 1000000007L;
+
+	@Benchmark
+	public BigInteger pollardFactoringAlgorithm() throws Throwable {
+		return (BigInteger) POLLARD.invokeExact(pollardN, pollardB);
+	}
+
+	@Benchmark
+	public BigInteger pollardRhoFactoringAlgorithm() throws Throwable {
+		return (BigInteger) POLLARD_RHO.invokeExact(rhoN, rhoX1);
+	}
+
+	@Benchmark
+	public BigInteger ellipticCurveFactoringAlgorithm() throws Throwable {
+		return (BigInteger) ELLIPTIC_CURVE.invokeExact(ellipticCurveN, 2000L, 200000L, 1, 1);
+	}
+
+	@Benchmark
+	public boolean trivialPrimeValidator() throws Throwable {
+		return (boolean) PRIME_VALIDATOR.invokeExact(prime);
+	}
+}
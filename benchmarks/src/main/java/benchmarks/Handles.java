@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/*
+benchmarked classes live in default package, which can not be imported from named package that JMH requires,
+so benchmarks reach them through method handles
+handles are kept in static final fields, so JIT treats them as constants and inlines invokeExact calls
+instances of benchmarked classes are passed as Object
+ */
+final class Handles {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	static MethodHandle staticMethod(String className, String name, Class<?> returnType, Class<?>... parameters) {
+		try {
+			return LOOKUP.findStatic(Class.forName(className), name, MethodType.methodType(returnType, parameters));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	receiver and result of type from default package are adapted to Object
+	 */
+	static MethodHandle virtualMethod(String className, String name, Class<?> returnType, Class<?>... parameters) {
+		try {
+			MethodHandle handle = LOOKUP.findVirtual(Class.forName(className), name, MethodType.methodType(returnType, parameters));
+			return handle.asType(handle.type().changeParameterType(0, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static Object construct(String className, Class<?>[] parameters, Object... arguments) {
+		try {
+			return LOOKUP.findConstructor(Class.forName(className), MethodType.methodType(void.class, parameters)).invokeWithArguments(arguments);
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static Object invoke(String className, String name, Class<?>[] parameters, Object... arguments) {
+		try {
+			Class<?> type = Class.forName(className);
+			return type.getMethod(name, parameters).invoke(null, arguments);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Handles() {
+		throw new IllegalStateException("Utility class");
+	}
+}
@@ -0,0 +1,177 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+single steps of factoring loops with ModContext against BigInteger, modulus has bits bits
+rho step is y = y^2 + c and q = q * (x - y) as in brent, BigInteger variants square with multiply and with modPow
+p-1 stage 2 step is b = b * a^gap and q = q * (b - 1) as in pollardSecondStage, modPow variant computes a^prime directly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModContextBenchmark {
+	private static final String CONTEXT = "ModContext";
+	private static final MethodHandle MULTIPLY = Handles.virtualMethod(CONTEXT, "multiply", void.class, int[].class, int[].class, int[].class);
+	private static final MethodHandle SQUARE = Handles.virtualMethod(CONTEXT, "square", void.class, int[].class, int[].class);
+	private static final MethodHandle ADD = Handles.virtualMethod(CONTEXT, "add", void.class, int[].class, int[].class, int[].class);
+	private static final MethodHandle SUBTRACT = Handles.virtualMethod(CONTEXT, "subtract", void.class, int[].class, int[].class, int[].class);
+	private static final MethodHandle TO_MONTGOMERY = Handles.virtualMethod(CONTEXT, "toMontgomery", int[].class, BigInteger.class);
+	private static final BigInteger TWO = BigInteger.valueOf(2);
+	// steps of one invocation
+	private static final int STEPS = 256;
+	// p-1 stage 2 primes start after this bound
+	private static final long B1 = 100000;
+
+	@Param({"128", "256", "512", "1024"})
+	public int bits;
+
+	private Object context;
+	private BigInteger n;
+	private BigInteger c;
+	private BigInteger x;
+	private BigInteger y;
+	private BigInteger a;
+	private long[] primes;
+	private BigInteger[] gapPowers;
+	private int[] constantMontgomery;
+	private int[] xMontgomery;
+	private int[] yMontgomery;
+	private int[] oneMontgomery;
+	// b of p-1 stage 2
+	private int[] power;
+	private int[][] gapPowersMontgomery;
+	private int[] square;
+	private int[] difference;
+	private int[] accumulator;
+	private int[] product;
+
+	@Setup
+	public void setup() throws Throwable {
+		Random random = new Random(bits);
+		n = BigInteger.probablePrime(bits / 2, random).multiply(BigInteger.probablePrime(bits / 2, random));
+		context = Handles.construct(CONTEXT, new Class<?>[]{BigInteger.class}, n);
+		c = BigInteger.ONE;
+		x = new BigInteger(bits - 1, random);
+		y = new BigInteger(bits - 1, random);
+		a = new BigInteger(bits - 1, random);
+		primes = new long[STEPS + 1];
+		BigInteger prime = BigInteger.valueOf(B1);
+		for (int i = 0; i < primes.length; i++) {
+			prime = prime.nextProbablePrime();
+			primes[i] = prime.longValueExact();
+		}
+		gapPowers = new BigInteger[STEPS];
+		gapPowersMontgomery = new int[STEPS][];
+		for (int i = 0; i < STEPS; i++) {
+			gapPowers[i] = a.modPow(BigInteger.valueOf(primes[i + 1] - primes[i]), n);
+			gapPowersMontgomery[i] = (int[]) TO_MONTGOMERY.invokeExact(context, gapPowers[i]);
+		}
+		constantMontgomery = (int[]) TO_MONTGOMERY.invokeExact(context, c);
+		xMontgomery = (int[]) TO_MONTGOMERY.invokeExact(context, x);
+		yMontgomery = (int[]) TO_MONTGOMERY.invokeExact(context, y);
+		oneMontgomery = (int[]) TO_MONTGOMERY.invokeExact(context, BigInteger.ONE);
+		square = new int[yMontgomery.length];
+		difference = new int[yMontgomery.length];
+		power = yMontgomery.clone();
+		accumulator = oneMontgomery.clone();
+		product = new int[yMontgomery.length];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public int[] rhoStepModContext() throws Throwable {
+		for (int i = 0; i < STEPS; i++) {
+			SQUARE.invokeExact(context, yMontgomery, square);
+			ADD.invokeExact(context, square, constantMontgomery, yMontgomery);
+			SUBTRACT.invokeExact(context, xMontgomery, yMontgomery, difference);
+			MULTIPLY.invokeExact(context, accumulator, difference, product);
+			int[] temp = accumulator;
+			accumulator = product;
+			product = temp;
+		}
+		return accumulator;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public BigInteger rhoStepMultiply() {
+		BigInteger value = y;
+		BigInteger q = BigInteger.ONE;
+		for (int i = 0; i < STEPS; i++) {
+			value = value.multiply(value).add(c).mod(n);
+			q = q.multiply(x.subtract(value)).mod(n);
+		}
+		return q;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public BigInteger rhoStepModPow() {
+		BigInteger value = y;
+		BigInteger q = BigInteger.ONE;
+		for (int i = 0; i < STEPS; i++) {
+			value = value.modPow(TWO, n).add(c).mod(n);
+			q = q.multiply(x.subtract(value)).mod(n);
+		}
+		return q;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public int[] pollardStepModContext() throws Throwable {
+		for (int i = 0; i < STEPS; i++) {
+			SUBTRACT.invokeExact(context, power, oneMontgomery, difference);
+			MULTIPLY.invokeExact(context, accumulator, difference, product);
+			int[] temp = accumulator;
+			accumulator = product;
+			product = temp;
+			MULTIPLY.invokeExact(context, power, gapPowersMontgomery[i], square);
+			temp = power;
+			power = square;
+			square = temp;
+		}
+		return accumulator;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public BigInteger pollardStepMultiply() {
+		BigInteger b = y;
+		BigInteger q = BigInteger.ONE;
+		for (int i = 0; i < STEPS; i++) {
+			q = q.multiply(b.subtract(BigInteger.ONE)).mod(n);
+			b = b.multiply(gapPowers[i]).mod(n);
+		}
+		return q;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public BigInteger pollardStepModPow() {
+		BigInteger q = BigInteger.ONE;
+		for (int i = 0; i < STEPS; i++) {
+			q = q.multiply(a.modPow(BigInteger.valueOf(primes[i]), n).subtract(BigInteger.ONE)).mod(n);
+		}
+		return q;
+	}
+}
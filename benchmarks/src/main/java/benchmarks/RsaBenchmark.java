@@ -0,0 +1,81 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+RSA_Cryptosystem with modulus of keyBits bits and b = 65537
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RsaBenchmark {
+	private static final String RSA = "RSA_Cryptosystem";
+	private static final MethodHandle ENCRYPTION = Handles.virtualMethod(RSA, "encryption", BigInteger.class, BigInteger.class);
+	private static final MethodHandle DECRYPTION = Handles.virtualMethod(RSA, "decryption", BigInteger.class, BigInteger.class);
+	private static final MethodHandle BATCH_DECRYPTION = Handles.virtualMethod(RSA, "decryption", BigInteger[].class, BigInteger[].class);
+
+	private static final int BATCH = 64;
+
+	@Param({"512", "1024", "2048"})
+	public int keyBits;
+
+	private Object rsa;
+	private BigInteger plaintext;
+	private BigInteger ciphertext;
+	private BigInteger[] ciphertexts;
+
+	@Setup
+	public void setup() throws Throwable {
+		Random random = new Random(keyBits);
+		BigInteger b = BigInteger.valueOf(65537);
+		BigInteger p;
+		BigInteger q;
+		do {
+			p = BigInteger.probablePrime(keyBits / 2, random);
+			q = BigInteger.probablePrime(keyBits / 2, random);
+		} while (p.equals(q) || !p.subtract(BigInteger.ONE).gcd(b).equals(BigInteger.ONE) || !q.subtract(BigInteger.ONE).gcd(b).equals(BigInteger.ONE));
+		rsa = Handles.construct(RSA, new Class<?>[]{BigInteger.class, BigInteger.class, BigInteger.class}, p, q, b);
+		BigInteger n = p.multiply(q);
+		plaintext = new BigInteger(keyBits - 1, random).mod(n);
+		ciphertext = (BigInteger) ENCRYPTION.invokeExact(rsa, plaintext);
+		ciphertexts = new BigInteger[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			ciphertexts[i] = new BigInteger(keyBits - 1, random).mod(n);
+		}
+	}
+
+	@Benchmark
+	public BigInteger encryption() throws Throwable {
+		return (BigInteger) ENCRYPTION.invokeExact(rsa, plaintext);
+	}
+
+	@Benchmark
+	public BigInteger decryption() throws Throwable {
+		return (BigInteger) DECRYPTION.invokeExact(rsa, ciphertext);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public BigInteger[] batchDecryption() throws Throwable {
+		return (BigInteger[]) BATCH_DECRYPTION.invokeExact(rsa, ciphertexts);
+	}
+}
@@ -0,0 +1,84 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+AdvancedCipherEncrypter on 16 bit blocks, every result is one block
+encryption works in place, so each call encrypts result of previous one
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubstitutionPermutationNetworkBenchmark {
+	private static final String CIPHER = "AdvancedCipherEncrypter";
+	private static final MethodHandle DEFAULT = Handles.staticMethod(CIPHER, "substitutionPermutationNetwork", int[].class, int[].class);
+	private static final MethodHandle CUSTOM = Handles.staticMethod(CIPHER, "substitutionPermutationNetwork", int[].class, int[].class, int.class, int[].class, int[].class, int[].class);
+	private static final MethodHandle PACKED = Handles.virtualMethod("PackedSubstitutionPermutationNetwork", "encrypt", long.class, long.class);
+	private static final MethodHandle BITSLICED = Handles.virtualMethod("BitslicedSubstitutionPermutationNetwork", "encryptBlocks", long[].class, long[].class);
+
+	private static final int BLOCKS = 1024;
+	private static final int[] S_BOX = {14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7};
+	private static final int[] P_BOX = {0, 4, 8, 12, 1, 5, 9, 13, 2, 6, 10, 14, 3, 7, 11, 15};
+	private static final int[] KEY = {0, 0, 1, 1, 1, 0, 1, 0, 1, 0, 0, 1, 0, 1, 0, 0, 1, 1, 0, 1, 0, 1, 1, 0, 0, 0, 1, 1, 1, 1, 1, 1};
+
+	private int[] block;
+	private long packedBlock;
+	private long[] blocks;
+	private Object packed;
+	private Object bitsliced;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(16);
+		block = new int[16];
+		for (int i = 0; i < block.length; i++) {
+			block[i] = random.nextInt(2);
+		}
+		packedBlock = random.nextInt(1 << 16);
+		blocks = new long[BLOCKS];
+		for (int i = 0; i < blocks.length; i++) {
+			blocks[i] = random.nextInt(1 << 16);
+		}
+		packed = Handles.invoke(CIPHER, "packedNetwork", new Class<?>[]{int.class}, 16);
+		bitsliced = Handles.invoke(CIPHER, "bitslicedNetwork", new Class<?>[]{int.class}, 16);
+	}
+
+	@Benchmark
+	public int[] substitutionPermutationNetwork() throws Throwable {
+		return (int[]) DEFAULT.invokeExact(block);
+	}
+
+	@Benchmark
+	public int[] substitutionPermutationNetworkCustom() throws Throwable {
+		return (int[]) CUSTOM.invokeExact(block, 5, KEY, S_BOX, P_BOX);
+	}
+
+	@Benchmark
+	public long packedNetwork() throws Throwable {
+		packedBlock = (long) PACKED.invokeExact(packed, packedBlock);
+		return packedBlock;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BLOCKS)
+	public long[] bitslicedNetwork() throws Throwable {
+		return (long[]) BITSLICED.invokeExact(bitsliced, blocks);
+	}
+}